@@ -12,7 +12,8 @@ import java.util.Map;
 @RequestMapping("/fallback")
 public class FallbackController {
 
-    @GetMapping("/products")
+    // Circuit breakers forward with the original method, so fallbacks accept any method
+    @RequestMapping("/products")
     public ResponseEntity<Map<String, String>> productFallback() {
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
                 .body(Map.of(
@@ -22,7 +23,7 @@ public class FallbackController {
                 ));
     }
 
-    @GetMapping("/orders")
+    @RequestMapping("/orders")
     public ResponseEntity<Map<String, String>> orderFallback() {
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
                 .body(Map.of(
@@ -0,0 +1,121 @@
+package com.ecommerce.gateway.filter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+
+/**
+ * Times out a forwarded request once it exceeds a multiple of the route's recent latency
+ * percentile, clamped between a floor and a ceiling. Timed-out requests are recorded at
+ * their elapsed time, so if a backend becomes uniformly slower the timeout widens towards
+ * the ceiling instead of failing every call.
+ * <p>
+ * Declare it after {@code CircuitBreaker} on a route so timeouts count as breaker failures
+ * and are answered by the fallback.
+ */
+@Component
+public class AdaptiveTimeoutGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveTimeoutGatewayFilterFactory.Config> {
+
+    private static final Duration RECOMPUTE_INTERVAL = Duration.ofSeconds(1);
+
+    private final MeterRegistry meterRegistry;
+
+    public AdaptiveTimeoutGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+
+        private double percentile = 0.99;
+
+        private double multiplier = 2.0;
+
+        private Duration minTimeout = Duration.ofMillis(250);
+
+        private Duration maxTimeout = Duration.ofSeconds(5);
+
+        /** Samples needed before the percentile is trusted; until then {@code maxTimeout} applies. */
+        private int minSamples = 100;
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        public Duration getMinTimeout() {
+            return minTimeout;
+        }
+
+        public void setMinTimeout(Duration minTimeout) {
+            this.minTimeout = minTimeout;
+        }
+
+        public Duration getMaxTimeout() {
+            return maxTimeout;
+        }
+
+        public void setMaxTimeout(Duration maxTimeout) {
+            this.maxTimeout = maxTimeout;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        LatencyTracker tracker = new LatencyTracker(config.getPercentile(), config.getMultiplier(),
+                config.getMinTimeout(), config.getMaxTimeout(), config.getMinSamples(), RECOMPUTE_INTERVAL);
+        Gauge.builder("gateway.adaptive.timeout", tracker, t -> t.currentTimeout().toMillis())
+                .tag("route", config.getRouteId() != null ? config.getRouteId() : ClientKeys.UNKNOWN)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .timeout(tracker.currentTimeout())
+                    .doFinally(signal -> {
+                        if (signal != SignalType.CANCEL) {
+                            tracker.record(System.nanoTime() - start);
+                        }
+                    });
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.gateway.filter;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Resolves the client a request is attributed to by the limiter filters.
+ */
+final class ClientKeys {
+
+    static final String UNKNOWN = "unknown";
+
+    private ClientKeys() {
+    }
+
+    /**
+     * The value of {@code header} when configured and present, otherwise the remote address.
+     */
+    static String resolve(ServerWebExchange exchange, String header) {
+        if (header != null && !header.isBlank()) {
+            String value = exchange.getRequest().getHeaders().getFirst(header);
+            if (value != null && !value.isBlank()) {
+                return value;
+            }
+        }
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        if (remote == null) {
+            return UNKNOWN;
+        }
+        return remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString();
+    }
+
+    static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : UNKNOWN;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of requests a route forwards at the same time, optionally per client.
+ * A request over the cap is answered with 429 straight away instead of queueing, and a
+ * slot is released however the exchange ends, including cancellation.
+ */
+@Component
+public class ConcurrencyLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ConcurrencyLimitGatewayFilterFactory.Config> {
+
+    private final MeterRegistry meterRegistry;
+
+    public ConcurrencyLimitGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static class Config {
+
+        private int maxInFlight = 200;
+
+        /** Apply the cap to each client separately rather than to the route as a whole. */
+        private boolean perClient;
+
+        /** Header identifying the client when {@code perClient}; the remote address when absent. */
+        private String keyHeader;
+
+        /** Clients tracked at once when {@code perClient}; the least recently seen are dropped beyond this. */
+        private long maxClients = 100_000;
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public boolean isPerClient() {
+            return perClient;
+        }
+
+        public void setPerClient(boolean perClient) {
+            this.perClient = perClient;
+        }
+
+        public String getKeyHeader() {
+            return keyHeader;
+        }
+
+        public void setKeyHeader(String keyHeader) {
+            this.keyHeader = keyHeader;
+        }
+
+        public long getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(long maxClients) {
+            this.maxClients = maxClients;
+        }
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        AtomicInteger routeInFlight = new AtomicInteger();
+        // Counters are dropped once a client goes quiet or too many clients are tracked;
+        // requests outliving their counter only loosen the cap
+        Cache<String, AtomicInteger> clientInFlight = Caffeine.newBuilder()
+                .maximumSize(config.getMaxClients())
+                .expireAfterAccess(Duration.ofMinutes(5))
+                .build();
+
+        return (exchange, chain) -> {
+            AtomicInteger inFlight = config.isPerClient()
+                    ? clientInFlight.get(ClientKeys.resolve(exchange, config.getKeyHeader()), k -> new AtomicInteger())
+                    : routeInFlight;
+            if (inFlight.incrementAndGet() > config.getMaxInFlight()) {
+                inFlight.decrementAndGet();
+                meterRegistry.counter("gateway.requests.rejected",
+                        "route", ClientKeys.routeId(exchange), "limiter", "concurrency").increment();
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                return exchange.getResponse().setComplete();
+            }
+            return chain.filter(exchange).doFinally(signal -> inFlight.decrementAndGet());
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.gateway.filter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the most recent response latencies of a route in a fixed ring buffer and derives a
+ * timeout from a latency percentile. Recording is lock-free; the percentile is recomputed
+ * by at most one caller per interval.
+ */
+public class LatencyTracker {
+
+    private static final int CAPACITY = 1024;
+
+    private final AtomicLongArray samples = new AtomicLongArray(CAPACITY);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong nextRecompute = new AtomicLong();
+    private final double percentile;
+    private final double multiplier;
+    private final long minTimeoutNanos;
+    private final long maxTimeoutNanos;
+    private final int minSamples;
+    private final long recomputeIntervalNanos;
+    private volatile long timeoutNanos;
+
+    public LatencyTracker(double percentile, double multiplier, Duration minTimeout, Duration maxTimeout,
+                          int minSamples, Duration recomputeInterval) {
+        this.percentile = percentile;
+        this.multiplier = multiplier;
+        this.minTimeoutNanos = minTimeout.toNanos();
+        this.maxTimeoutNanos = maxTimeout.toNanos();
+        this.minSamples = Math.min(minSamples, CAPACITY);
+        this.recomputeIntervalNanos = recomputeInterval.toNanos();
+        this.timeoutNanos = maxTimeoutNanos;
+    }
+
+    public Duration currentTimeout() {
+        return Duration.ofNanos(timeoutNanos);
+    }
+
+    public void record(long latencyNanos) {
+        long index = count.getAndIncrement();
+        samples.set((int) (index % CAPACITY), latencyNanos);
+
+        long now = System.nanoTime();
+        long due = nextRecompute.get();
+        if (now - due >= 0 && nextRecompute.compareAndSet(due, now + recomputeIntervalNanos)) {
+            recompute();
+        }
+    }
+
+    private void recompute() {
+        int size = (int) Math.min(count.get(), CAPACITY);
+        if (size < minSamples) {
+            // Not enough history yet: stay at the ceiling rather than guess
+            timeoutNanos = maxTimeoutNanos;
+            return;
+        }
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        long observed = sorted[Math.max(0, (int) Math.ceil(percentile * size) - 1)];
+        long target = (long) (observed * multiplier);
+        timeoutNanos = Math.max(minTimeoutNanos, Math.min(maxTimeoutNanos, target));
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client token-bucket rate limiter kept in gateway memory, for deployments without
+ * Redis. Each route instance has its own buckets, keyed by a request header or the remote
+ * address, held in a bounded map that forgets idle clients. Rejected requests get 429
+ * with {@code Retry-After} and never reach the backend.
+ * <p>
+ * Limits apply per gateway replica; with N replicas a client can get up to N times the
+ * configured rate.
+ */
+@Component
+public class LocalRateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<LocalRateLimitGatewayFilterFactory.Config> {
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final MeterRegistry meterRegistry;
+
+    public LocalRateLimitGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static class Config {
+
+        /** Sustained requests per second per client. */
+        private double replenishRate = 100;
+
+        /** Requests a client may send at once after being idle. */
+        private int burstCapacity = 200;
+
+        /** Header identifying the client, e.g. an API key; the remote address when absent. */
+        private String keyHeader;
+
+        /** Clients tracked at once; the least recently seen are dropped beyond this. */
+        private long maxClients = 100_000;
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public String getKeyHeader() {
+            return keyHeader;
+        }
+
+        public void setKeyHeader(String keyHeader) {
+            this.keyHeader = keyHeader;
+        }
+
+        public long getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(long maxClients) {
+            this.maxClients = maxClients;
+        }
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // An idle client's bucket is full again after capacity / rate, so it can be dropped then
+        Duration refillTime = Duration.ofMillis((long) Math.ceil(config.getBurstCapacity() * 1000 / config.getReplenishRate()));
+        Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+                .maximumSize(config.getMaxClients())
+                .expireAfterAccess(refillTime.plusSeconds(1))
+                .build();
+
+        return (exchange, chain) -> {
+            String key = ClientKeys.resolve(exchange, config.getKeyHeader());
+            TokenBucket bucket = buckets.get(key, k -> new TokenBucket(config.getReplenishRate(), config.getBurstCapacity()));
+            if (bucket.tryAcquire()) {
+                return chain.filter(exchange);
+            }
+            meterRegistry.counter("gateway.requests.rejected",
+                    "route", ClientKeys.routeId(exchange), "limiter", "rate").increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(bucket.nanosUntilAvailable() + 999_999_999L));
+            response.getHeaders().set("Retry-After", Long.toString(retryAfterSeconds));
+            response.getHeaders().set(REMAINING_HEADER, "0");
+            return response.setComplete();
+        };
+    }
+}
@@ -0,0 +1,257 @@
+package com.ecommerce.gateway.filter;
+
+import com.ecommerce.gateway.filter.ResponseCacheStore.CachedResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches successful JSON, Smile and CBOR GET responses of a route and serves them with a strong ETag,
+ * answering matching {@code If-None-Match} requests with 304. Writes passing through the
+ * route purge the written resource and all collection responses before and after they are
+ * forwarded. A read records the store's generation when it arrives, and its response is
+ * neither stored nor served if a purge came in the meantime. So a read that overlaps a
+ * write cannot re-cache the old state.
+ * <p>
+ * Bodies are buffered only up to the store's per-entry limit. A larger response is passed
+ * through as it arrives, uncached and without an ETag.
+ * <p>
+ * Writes that do not go through the gateway are only picked up once entries expire, so
+ * the TTL bounds staleness.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Set<HttpMethod> WRITE_METHODS =
+            Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+    private static final Set<String> UNCACHED_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION,
+            HttpHeaders.DATE, HttpHeaders.SET_COOKIE);
+    private static final List<MediaType> CACHEABLE_TYPES = List.of(
+            MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, new MediaType("application", "x-jackson-smile"));
+
+    private final ResponseCacheStore store;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    public static class Config {
+
+        private Duration ttl = Duration.ofSeconds(30);
+
+        /** POST endpoints that only read, such as bulk lookups; they neither cache nor purge. */
+        private List<String> readOnlyPaths = List.of("/api/products/lookup");
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public List<String> getReadOnlyPaths() {
+            return readOnlyPaths;
+        }
+
+        public void setReadOnlyPaths(List<String> readOnlyPaths) {
+            this.readOnlyPaths = readOnlyPaths;
+        }
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Must run before NettyWriteResponseFilter captures the response, like ModifyResponseBody
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String path = request.getPath().value();
+
+            if (HttpMethod.GET.equals(request.getMethod())) {
+                String key = cacheKey(request);
+                CachedResponse cached = noCache(request.getHeaders()) ? null : store.get(key);
+                if (cached != null) {
+                    return writeCached(exchange, cached);
+                }
+                ServerHttpResponse response = new CachingResponseDecorator(exchange, key, resourceId(path), config.getTtl(),
+                        store.generation());
+                return chain.filter(exchange.mutate().response(response).build());
+            }
+
+            if (WRITE_METHODS.contains(request.getMethod()) && !isReadOnly(config, path)) {
+                String resourceId = resourceId(path);
+                store.purge(resourceId);
+                return chain.filter(exchange).doFinally(signal -> store.purge(resourceId));
+            }
+            return chain.filter(exchange);
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+        if (matchesEtag(exchange.getRequest().getHeaders(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(cached.etag());
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().addAll(cached.headers());
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final String resourceId;
+        private final Duration ttl;
+        private final long generation;
+
+        CachingResponseDecorator(ServerWebExchange exchange, String key, String resourceId, Duration ttl, long generation) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.resourceId = resourceId;
+            this.ttl = ttl;
+            this.generation = generation;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getDelegate().getHeaders();
+            int maxEntryBytes = store.getMaxEntryBytes();
+            if (!isCacheable(headers) || headers.getContentLength() > maxEntryBytes) {
+                return super.writeWith(body);
+            }
+            // One list holding the whole body if it fits, else the buffers up to the first one
+            // past the limit followed by one list per buffer, which are passed straight through
+            AtomicLong size = new AtomicLong();
+            Flux<List<DataBuffer>> chunks = Flux.from(body)
+                    .map(DataBuffer.class::cast)
+                    .bufferUntil(buffer -> size.addAndGet(buffer.readableByteCount()) > maxEntryBytes);
+            return chunks.switchOnFirst((first, rest) -> {
+                if (first.isOnComplete() || first.hasValue() && size.get() <= maxEntryBytes) {
+                    return writeAndCache(headers, first.hasValue() ? first.get() : List.of());
+                }
+                return getDelegate().writeWith(rest.concatMapIterable(buffers -> buffers));
+            }).then();
+        }
+
+        private Mono<Void> writeAndCache(HttpHeaders headers, List<DataBuffer> buffers) {
+            byte[] bytes = new byte[buffers.stream().mapToInt(DataBuffer::readableByteCount).sum()];
+            int offset = 0;
+            for (DataBuffer buffer : buffers) {
+                int length = buffer.readableByteCount();
+                buffer.read(bytes, offset, length);
+                offset += length;
+                DataBufferUtils.release(buffer);
+            }
+
+            String etag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+            headers.setETag(etag);
+            store.put(key, new CachedResponse(resourceId, cacheableHeaders(headers), bytes, etag, ttl, generation));
+            headers.set(CACHE_STATUS_HEADER, "MISS");
+
+            if (matchesEtag(exchange.getRequest().getHeaders(), etag)) {
+                setStatusCode(HttpStatus.NOT_MODIFIED);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                headers.remove(HttpHeaders.CONTENT_TYPE);
+                return getDelegate().setComplete();
+            }
+            return getDelegate().writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+
+        private boolean isCacheable(HttpHeaders headers) {
+            if (!HttpStatus.OK.equals(getStatusCode())) {
+                return false;
+            }
+            MediaType contentType = headers.getContentType();
+            if (contentType == null || CACHEABLE_TYPES.stream().noneMatch(type -> type.isCompatibleWith(contentType))) {
+                return false;
+            }
+            String cacheControl = headers.getCacheControl();
+            return cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+        }
+    }
+
+    private boolean isReadOnly(Config config, String path) {
+        return config.getReadOnlyPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private static HttpHeaders cacheableHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (UNCACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)
+                    && !CACHE_STATUS_HEADER.equalsIgnoreCase(name)) {
+                copy.put(name, List.copyOf(values));
+            }
+        });
+        return copy;
+    }
+
+    private static String cacheKey(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        String query = request.getURI().getRawQuery();
+        return request.getPath().value()
+                + (query != null ? "?" + query : "")
+                + "|" + String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT))
+                + "|" + String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    /**
+     * The first numeric path segment, e.g. {@code 42} for {@code /api/products/42/stock};
+     * {@code null} for collection paths.
+     */
+    static String resourceId(String path) {
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty() && segment.chars().allMatch(Character::isDigit)) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    private static boolean noCache(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && cacheControl.contains("no-cache");
+    }
+
+    private static boolean matchesEtag(HttpHeaders requestHeaders, String etag) {
+        for (String candidate : requestHeaders.getIfNoneMatch()) {
+            String value = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
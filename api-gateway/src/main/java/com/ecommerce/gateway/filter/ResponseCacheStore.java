@@ -0,0 +1,138 @@
+package com.ecommerce.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded in-memory store behind {@link ResponseCacheGatewayFilterFactory}. Entries are
+ * weighed by body size and expire after the TTL of the route that cached them.
+ * <p>
+ * Purges do not walk the cache. Each one takes the next generation number and records it
+ * for the collection responses and, by hash stripe, for the written resource. An entry is
+ * stale once a purge that covers it is newer than the generation its request started at. It
+ * is then dropped on its next read, so a purge costs the same however many entries it covers.
+ */
+@Component
+public class ResponseCacheStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheStore.class);
+
+    /**
+     * A cached 200 response. {@code resourceId} is the id segment of single-item paths such
+     * as {@code /api/products/42}, or {@code null} for collection and search responses.
+     * {@code generation} is {@link #generation()} as of when the request was received.
+     */
+    public record CachedResponse(String resourceId, HttpHeaders headers, byte[] body, String etag, Duration ttl,
+                                 long generation) {
+    }
+
+    private static final int PURGE_STRIPES = 4096;
+
+    private final Cache<String, CachedResponse> cache;
+    private final int maxEntryBytes;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong collectionsPurgedAt = new AtomicLong();
+    private final AtomicLongArray resourcesPurgedAt = new AtomicLongArray(PURGE_STRIPES);
+
+    public ResponseCacheStore(@Value("${gateway.response-cache.maximum-bytes:67108864}") long maximumBytes,
+                              @Value("${gateway.response-cache.max-entry-bytes:1048576}") int maxEntryBytes,
+                              MeterRegistry meterRegistry) {
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, CachedResponse value) -> key.length() + value.body().length)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.responses");
+        log.info("Gateway response cache maximumBytes: {}, maxEntryBytes: {}", maximumBytes, maxEntryBytes);
+    }
+
+    public CachedResponse get(String key) {
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null && isPurged(cached)) {
+            cache.asMap().remove(key, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * Stores the response unless its body is larger than the per-entry limit or a write
+     * purged it while it was being fetched.
+     */
+    public void put(String key, CachedResponse response) {
+        if (response.body().length <= maxEntryBytes && !isPurged(response)) {
+            cache.put(key, response);
+        }
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * The current generation; a response fetched from here on is not affected by earlier purges.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Marks the cached representations of {@code resourceId} and every collection response
+     * stale, since a single write can change any listing, search or filter result.
+     */
+    public void purge(String resourceId) {
+        long purgedAt = generation.incrementAndGet();
+        collectionsPurgedAt.accumulateAndGet(purgedAt, Math::max);
+        if (resourceId != null) {
+            resourcesPurgedAt.accumulateAndGet(stripe(resourceId), purgedAt, Math::max);
+        }
+    }
+
+    private boolean isPurged(CachedResponse response) {
+        long purgedAt = response.resourceId() == null
+                ? collectionsPurgedAt.get()
+                : resourcesPurgedAt.get(stripe(response.resourceId()));
+        return purgedAt > response.generation();
+    }
+
+    private static int stripe(String resourceId) {
+        return Math.floorMod(resourceId.hashCode(), PURGE_STRIPES);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
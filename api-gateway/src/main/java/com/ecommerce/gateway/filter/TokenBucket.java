@@ -0,0 +1,50 @@
+package com.ecommerce.gateway.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. The bucket is tracked as the theoretical arrival time of the
+ * next request (the GCRA formulation), so acquiring a token is a single CAS on one long
+ * and an idle bucket needs no refill work.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double tokensPerSecond, int capacity) {
+        if (tokensPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Rate and capacity must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.toleranceNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - toleranceNanos);
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    boolean tryAcquire(long now) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            if (next - now > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Nanoseconds until the next token becomes available, zero if one is available now.
+     */
+    public long nanosUntilAvailable() {
+        long now = System.nanoTime();
+        long wait = Math.max(theoreticalArrival.get(), now) + emissionIntervalNanos - now - toleranceNanos;
+        return Math.max(0, wait);
+    }
+}
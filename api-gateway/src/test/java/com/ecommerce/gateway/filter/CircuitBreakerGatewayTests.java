@@ -0,0 +1,131 @@
+package com.ecommerce.gateway.filter;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class CircuitBreakerGatewayTests {
+
+    private static final AtomicInteger slowCalls = new AtomicInteger();
+    private static final HttpServer backend = startBackend();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.gateway.routes[0].id", () -> "product-service");
+        registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + backend.getAddress().getPort());
+        registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/api/products/**");
+        registry.add("spring.cloud.gateway.routes[0].filters[0].name", () -> "CircuitBreaker");
+        registry.add("spring.cloud.gateway.routes[0].filters[0].args.name", () -> "productService");
+        registry.add("spring.cloud.gateway.routes[0].filters[0].args.fallbackUri", () -> "forward:/fallback/products");
+        registry.add("spring.cloud.gateway.routes[0].filters[1].name", () -> "AdaptiveTimeout");
+        registry.add("spring.cloud.gateway.routes[0].filters[1].args.minTimeout", () -> "50ms");
+        registry.add("spring.cloud.gateway.routes[0].filters[1].args.maxTimeout", () -> "300ms");
+        registry.add("resilience4j.circuitbreaker.instances.productService.slidingWindowSize", () -> "4");
+        registry.add("resilience4j.circuitbreaker.instances.productService.minimumNumberOfCalls", () -> "4");
+        registry.add("resilience4j.circuitbreaker.instances.productService.waitDurationInOpenState", () -> "1m");
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.stop(0);
+    }
+
+    @Test
+    void shouldBoundLatencyAgainstSlowBackendAndOpenBreaker() {
+        webTestClient.get().uri("/api/products/fast").exchange().expectStatus().isOk();
+
+        for (int i = 0; i < 4; i++) {
+            long start = System.nanoTime();
+            webTestClient.get().uri("/api/products/slow").exchange()
+                    .expectStatus().isEqualTo(503)
+                    .expectBody().jsonPath("$.service").isEqualTo("product-service");
+            assertTrue(elapsed(start).compareTo(Duration.ofMillis(1500)) < 0,
+                    "fallback should answer well before the 3s backend delay");
+        }
+        assertEquals(1, meterRegistry.get("gateway.circuitbreaker.transitions")
+                .tag("name", "productService").tag("from", "CLOSED").tag("to", "OPEN")
+                .counter().count());
+
+        int backendCallsWhenOpened = slowCalls.get();
+        long start = System.nanoTime();
+        webTestClient.get().uri("/api/products/slow").exchange().expectStatus().isEqualTo(503);
+        webTestClient.post().uri("/api/products").exchange().expectStatus().isEqualTo(503);
+        assertTrue(elapsed(start).compareTo(Duration.ofMillis(500)) < 0, "an open breaker should fail fast");
+        assertEquals(backendCallsWhenOpened, slowCalls.get(), "an open breaker should not call the backend");
+        assertNotNull(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "productService").gauge());
+    }
+
+    @Test
+    void latencyTrackerShouldDeriveTimeoutFromPercentile() {
+        LatencyTracker tracker = new LatencyTracker(0.99, 2.0, Duration.ofMillis(10), Duration.ofSeconds(5), 100, Duration.ZERO);
+        assertEquals(Duration.ofSeconds(5), tracker.currentTimeout(), "no history yet should use the ceiling");
+
+        for (int i = 0; i < 200; i++) {
+            tracker.record(Duration.ofMillis(i < 196 ? 20 : 40).toNanos());
+        }
+        assertEquals(Duration.ofMillis(80), tracker.currentTimeout());
+
+        for (int i = 0; i < 1024; i++) {
+            tracker.record(Duration.ofSeconds(4).toNanos());
+        }
+        assertEquals(Duration.ofSeconds(5), tracker.currentTimeout(), "timeouts should be clamped to the ceiling");
+    }
+
+    private static Duration elapsed(long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    private static HttpServer startBackend() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/api/products", exchange -> {
+                if (exchange.getRequestURI().getPath().endsWith("/slow")) {
+                    slowCalls.incrementAndGet();
+                    try {
+                        Thread.sleep(3000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                } catch (IOException ignored) {
+                    // the gateway gave up on this request
+                }
+            });
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
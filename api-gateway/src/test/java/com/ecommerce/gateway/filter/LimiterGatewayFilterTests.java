@@ -0,0 +1,121 @@
+package com.ecommerce.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiterGatewayFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void tokenBucketShouldAllowBurstThenRefillAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 5);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire(now));
+        }
+        assertFalse(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now + 50_000_000L));
+        assertTrue(bucket.tryAcquire(now + 100_000_000L), "one token should be back after 1/rate seconds");
+        assertFalse(bucket.tryAcquire(now + 100_000_000L));
+    }
+
+    @Test
+    void tokenBucketShouldNeverOverGrantUnderContention() throws Exception {
+        TokenBucket bucket = new TokenBucket(0.001, 1000);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryAcquire()) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1000, granted.get());
+    }
+
+    @Test
+    void rateLimitShouldRejectPerClientKey() {
+        LocalRateLimitGatewayFilterFactory.Config config = new LocalRateLimitGatewayFilterFactory.Config();
+        config.setReplenishRate(0.001);
+        config.setBurstCapacity(2);
+        config.setKeyHeader("X-Api-Key");
+        GatewayFilter filter = new LocalRateLimitGatewayFilterFactory(meterRegistry).apply(config);
+        AtomicInteger forwarded = new AtomicInteger();
+        GatewayFilterChain chain = exchange -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        };
+
+        assertNull(run(filter, chain, "a").getResponse().getStatusCode());
+        assertNull(run(filter, chain, "a").getResponse().getStatusCode());
+        MockServerWebExchange rejected = run(filter, chain, "a");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertNotNull(rejected.getResponse().getHeaders().getFirst("Retry-After"));
+        assertNull(run(filter, chain, "b").getResponse().getStatusCode(), "other clients keep their own budget");
+
+        assertEquals(3, forwarded.get());
+        assertEquals(1, meterRegistry.get("gateway.requests.rejected").tag("limiter", "rate").counter().count());
+    }
+
+    @Test
+    void concurrencyLimitShouldRejectOverCapAndReleaseOnCompletion() {
+        ConcurrencyLimitGatewayFilterFactory.Config config = new ConcurrencyLimitGatewayFilterFactory.Config();
+        config.setMaxInFlight(2);
+        GatewayFilter filter = new ConcurrencyLimitGatewayFilterFactory(meterRegistry).apply(config);
+        Sinks.Empty<Void> backend = Sinks.empty();
+        GatewayFilterChain slowChain = exchange -> backend.asMono();
+
+        MockServerWebExchange first = exchange("a");
+        MockServerWebExchange second = exchange("b");
+        filter.filter(first, slowChain).subscribe();
+        filter.filter(second, slowChain).subscribe();
+
+        MockServerWebExchange third = exchange("c");
+        filter.filter(third, slowChain).block();
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, third.getResponse().getStatusCode());
+
+        backend.tryEmitEmpty();
+        MockServerWebExchange fourth = exchange("d");
+        filter.filter(fourth, exchange -> Mono.empty()).block();
+        assertNull(fourth.getResponse().getStatusCode(), "slots should be released once requests complete");
+    }
+
+    private static MockServerWebExchange run(GatewayFilter filter, GatewayFilterChain chain, String apiKey) {
+        MockServerWebExchange exchange = exchange(apiKey);
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    private static MockServerWebExchange exchange(String apiKey) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/products").header("X-Api-Key", apiKey));
+    }
+}
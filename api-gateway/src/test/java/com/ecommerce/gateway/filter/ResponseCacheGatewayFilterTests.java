@@ -0,0 +1,253 @@
+package com.ecommerce.gateway.filter;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ResponseCacheGatewayFilterTests {
+
+    private static final String SMILE = "application/x-jackson-smile";
+    private static final int LARGE_BODY_BYTES = 64 * 1024;
+    private static final AtomicInteger backendGets = new AtomicInteger();
+    private static final AtomicInteger price = new AtomicInteger(10);
+    private static final HttpServer backend = startBackend();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ResponseCacheStore store;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.gateway.routes[0].id", () -> "product-service");
+        registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + backend.getAddress().getPort());
+        registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/api/products/**");
+        registry.add("spring.cloud.gateway.routes[0].filters[0].name", () -> "ResponseCache");
+        registry.add("spring.cloud.gateway.routes[0].filters[0].args.ttl", () -> "1m");
+        registry.add("gateway.response-cache.max-entry-bytes", () -> LARGE_BODY_BYTES / 2);
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        store.invalidateAll();
+        backendGets.set(0);
+        price.set(10);
+    }
+
+    @Test
+    void shouldServeRepeatedGetsFromCache() {
+        String etag = get("/api/products/1")
+                .expectHeader().valueEquals(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER, "MISS")
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        get("/api/products/1")
+                .expectHeader().valueEquals(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER, "HIT")
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody().jsonPath("$.price").isEqualTo(10);
+
+        assertEquals(1, backendGets.get());
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", "gateway.responses").tag("result", "hit")
+                .functionCounter().count() >= 1);
+    }
+
+    @Test
+    void shouldAnswerMatchingIfNoneMatchWithNotModified() {
+        String etag = get("/api/products/1").returnResult(String.class).getResponseHeaders().getETag();
+        assertNotNull(etag);
+
+        webTestClient.get().uri("/api/products/1")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        webTestClient.get().uri("/api/products/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"stale\"")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void shouldPurgeCachedEntriesOnWrite() {
+        get("/api/products/1");
+        get("/api/products?category=Books");
+        get("/api/products/2");
+        assertEquals(3, backendGets.get());
+
+        price.set(20);
+        webTestClient.put().uri("/api/products/1")
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .bodyValue("{\"price\":20}")
+                .exchange()
+                .expectStatus().isOk();
+
+        get("/api/products/1").expectBody().jsonPath("$.price").isEqualTo(20);
+        get("/api/products?category=Books");
+        get("/api/products/2");
+        assertEquals(5, backendGets.get(), "only the written product and collections should be refetched");
+    }
+
+    @Test
+    void shouldNotPurgeOnReadOnlyLookup() {
+        get("/api/products/1");
+        webTestClient.post().uri("/api/products/lookup")
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .bodyValue("{\"ids\":[1]}")
+                .exchange()
+                .expectStatus().isOk();
+
+        get("/api/products/1").expectHeader().valueEquals(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER, "HIT");
+    }
+
+    @Test
+    void shouldCacheCompressedBinaryVariantsSeparately() {
+        // The default test client decompresses, which would hide what the gateway sends
+        WebTestClient rawClient = WebTestClient.bindToServer(new ReactorClientHttpConnector(HttpClient.create()))
+                .baseUrl("http://localhost:" + port)
+                .build();
+        byte[] smile = rawClient.get().uri("/api/products/1")
+                .header(HttpHeaders.ACCEPT, SMILE)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER, "MISS")
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        rawClient.get().uri("/api/products/1")
+                .header(HttpHeaders.ACCEPT, SMILE)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_TYPE, SMILE)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER, "HIT")
+                .expectBody(byte[].class).isEqualTo(smile);
+
+        get("/api/products/1").expectHeader().valueEquals(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER, "MISS");
+        assertEquals(2, backendGets.get(), "each Accept variant is cached on its own");
+    }
+
+    @Test
+    void shouldPassThroughResponsesLargerThanTheEntryLimit() {
+        byte[] first = get("/api/products/export")
+                .expectHeader().doesNotExist(HttpHeaders.ETAG)
+                .expectHeader().doesNotExist(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        assertNotNull(first);
+        assertEquals(LARGE_BODY_BYTES, first.length);
+
+        get("/api/products/export").expectHeader().doesNotExist(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER);
+        assertEquals(2, backendGets.get());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void shouldNotCacheResponsesFetchedAcrossAPurge() {
+        HttpHeaders headers = new HttpHeaders();
+        long startedAt = store.generation();
+        store.purge("1");
+        store.put("/api/products/1", new ResponseCacheStore.CachedResponse("1", headers, new byte[1], "\"a\"",
+                Duration.ofMinutes(1), startedAt));
+        assertNull(store.get("/api/products/1"));
+
+        store.put("/api/products/1", new ResponseCacheStore.CachedResponse("1", headers, new byte[1], "\"a\"",
+                Duration.ofMinutes(1), store.generation()));
+        store.put("/api/products", new ResponseCacheStore.CachedResponse(null, headers, new byte[1], "\"b\"",
+                Duration.ofMinutes(1), store.generation()));
+        store.purge("2");
+        assertNotNull(store.get("/api/products/1"), "other resources stay cached");
+        assertNull(store.get("/api/products"), "collections are purged by every write");
+        store.purge("1");
+        assertNull(store.get("/api/products/1"));
+    }
+
+    private WebTestClient.ResponseSpec get(String uri) {
+        return webTestClient.get().uri(uri).exchange().expectStatus().isOk();
+    }
+
+    private static HttpServer startBackend() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/api/products/export", exchange -> {
+                backendGets.incrementAndGet();
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                // Chunked, so the gateway only learns the size while streaming
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    byte[] chunk = new byte[1024];
+                    Arrays.fill(chunk, (byte) ' ');
+                    for (int i = 0; i < LARGE_BODY_BYTES / chunk.length; i++) {
+                        out.write(chunk);
+                        out.flush();
+                    }
+                }
+            });
+            server.createContext("/api/products", exchange -> {
+                if ("GET".equals(exchange.getRequestMethod())) {
+                    backendGets.incrementAndGet();
+                }
+                exchange.getRequestBody().readAllBytes();
+                byte[] body = ("{\"id\":1,\"name\":\"Widget\",\"price\":" + price.get() + "}")
+                        .getBytes(StandardCharsets.UTF_8);
+                if (SMILE.equals(exchange.getRequestHeaders().getFirst("Accept"))) {
+                    // Stands in for a gzipped Smile body; the gateway only passes the bytes through
+                    ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+                    try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                        gzip.write(body);
+                    }
+                    body = gzipped.toByteArray();
+                    exchange.getResponseHeaders().add("Content-Type", SMILE);
+                    exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                } else {
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                }
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.order.OrderServiceApplication;
+import com.ecommerce.product.ProductServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts product-service and order-service inside the benchmark JVM, each on its own
+ * in-memory H2 database (or H2 files, for restarts), and seeds them with set-based inserts.
+ * <p>
+ * The services' application.yml files are not on this module's classpath, so the settings
+ * that matter for the measured paths are repeated here. Logging is reduced to WARN so
+ * per-call INFO lines do not dominate the results.
+ */
+final class BenchmarkContexts {
+
+    static final String[] CATEGORIES = {"Electronics", "Books", "Clothing", "Home", "Sports", "Toys", "Garden", "Beauty"};
+
+    private BenchmarkContexts() {
+    }
+
+    static ConfigurableApplicationContext productService(String database, boolean web, boolean cacheEnabled) {
+        Map<String, Object> properties = commonProperties(database);
+        properties.put("spring.application.name", "product-service");
+        properties.put("product.cache.enabled", cacheEnabled);
+        return new SpringApplicationBuilder(ProductServiceApplication.class)
+                .web(web ? WebApplicationType.SERVLET : WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+    }
+
+    /**
+     * Product-service with the persistent profile's settings on the H2 files in
+     * {@code dataDir}: migrated by Flyway from product-service's db/migration and validated
+     * by Hibernate. The application-level product cache is off so reads reach Hibernate,
+     * whose second-level and query cache is on when {@code secondLevelCache} is set.
+     */
+    static ConfigurableApplicationContext productServiceOnFile(Path dataDir, boolean secondLevelCache) {
+        Map<String, Object> properties = commonProperties("unused");
+        properties.put("spring.application.name", "product-service");
+        properties.put("spring.datasource.url", "jdbc:h2:file:" + dataDir.resolve("productdb") + ";DB_CLOSE_ON_EXIT=FALSE");
+        properties.put("spring.jpa.hibernate.ddl-auto", "validate");
+        properties.put("spring.flyway.enabled", true);
+        // Paths are relative to the benchmarks directory, where mvn exec:exec runs
+        properties.put("spring.flyway.locations", "filesystem:../product-service/src/main/resources/db/migration");
+        properties.put("spring.jpa.properties.hibernate.cache.use_second_level_cache", secondLevelCache);
+        properties.put("spring.jpa.properties.hibernate.cache.use_query_cache", secondLevelCache);
+        properties.put("spring.jpa.properties.hibernate.cache.region.factory_class", "jcache");
+        properties.put("spring.jpa.properties.hibernate.javax.cache.provider",
+                "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+        properties.put("spring.jpa.properties.hibernate.javax.cache.uri",
+                Path.of("../product-service/src/main/resources/application.conf").toAbsolutePath().toUri().toString());
+        properties.put("product.cache.enabled", false);
+        return new SpringApplicationBuilder(ProductServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+    }
+
+    static ConfigurableApplicationContext orderService(String database, String productServiceUrl) {
+        return orderService(database, productServiceUrl, false);
+    }
+
+    static ConfigurableApplicationContext orderService(String database, String productServiceUrl, boolean web) {
+        Map<String, Object> properties = commonProperties(database);
+        properties.put("spring.application.name", "order-service");
+        properties.put("spring.jpa.properties.hibernate.jdbc.batch_size", 50);
+        properties.put("spring.jpa.properties.hibernate.order_inserts", true);
+        properties.put("spring.jpa.properties.hibernate.order_updates", true);
+        properties.put("product.service.url", productServiceUrl);
+        properties.put("outbox.relay.enabled", false);
+        return new SpringApplicationBuilder(OrderServiceApplication.class)
+                .web(web ? WebApplicationType.SERVLET : WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    /**
+     * Inserts {@code count} active products with ids 1..count, spread over {@link #CATEGORIES}.
+     */
+    static void seedProducts(JdbcTemplate jdbc, int count, int stock) {
+        jdbc.update("""
+                INSERT INTO products (name, description, price, stock, category, active, created_at)
+                SELECT CASE MOD(X, 4) WHEN 0 THEN 'Wireless Mouse ' WHEN 1 THEN 'Mechanical Keyboard '
+                                      WHEN 2 THEN 'Running Shoes ' ELSE 'Garden Hose ' END || X,
+                       'Seeded benchmark product number ' || X,
+                       CAST(5 + MOD(X, 995) AS DECIMAL(10, 2)) + 0.99,
+                       ?,
+                       %s,
+                       TRUE,
+                       LOCALTIMESTAMP
+                FROM SYSTEM_RANGE(1, ?)
+                """.formatted(categoryExpression()), stock, count);
+    }
+
+    /**
+     * Inserts {@code count} orders with ids 1..count for {@code customers} customers and
+     * {@code products} products, one second apart, then moves the id sequence past them.
+     */
+    static void seedOrders(JdbcTemplate jdbc, int count, int customers, int products) {
+        jdbc.update("""
+                INSERT INTO orders (id, product_id, quantity, total_amount, status, customer_email, customer_name,
+                                    shipping_address, notes, created_at, version)
+                SELECT X,
+                       MOD(X, ?) + 1,
+                       MOD(X, 3) + 1,
+                       CAST(MOD(X, 500) AS DECIMAL(10, 2)) + 9.99,
+                       CASE MOD(X, 10) WHEN 0 THEN 'CANCELLED' WHEN 1 THEN 'PENDING' WHEN 2 THEN 'CONFIRMED'
+                                       WHEN 3 THEN 'PROCESSING' WHEN 4 THEN 'SHIPPED' ELSE 'DELIVERED' END,
+                       'customer' || MOD(X, ?) || '@example.com',
+                       'Customer ' || MOD(X, ?),
+                       X || ' Benchmark Street, Springfield',
+                       'Please leave the parcel with the neighbour at number ' || X,
+                       DATEADD(SECOND, -X, LOCALTIMESTAMP),
+                       0
+                FROM SYSTEM_RANGE(1, ?)
+                """, products, customers, customers, count);
+        jdbc.execute("ALTER SEQUENCE orders_seq RESTART WITH " + (count + 1));
+    }
+
+    private static String categoryExpression() {
+        StringBuilder sql = new StringBuilder("CASE MOD(X, ").append(CATEGORIES.length).append(')');
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            sql.append(" WHEN ").append(i).append(" THEN '").append(CATEGORIES[i]).append('\'');
+        }
+        return sql.append(" END").toString();
+    }
+
+    private static Map<String, Object> commonProperties(String database) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("server.port", 0);
+        properties.put("spring.datasource.url", "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "password");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.flyway.enabled", false);
+        // api-gateway's sources and dependencies are here for GatewayLimiterBenchmark only
+        properties.put("spring.cloud.gateway.enabled", false);
+        properties.put("spring.jpa.properties.hibernate.cache.use_second_level_cache", false);
+        properties.put("spring.jpa.open-in-view", false);
+        properties.put("logging.level.root", "WARN");
+        return properties;
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.product.bulk.CatalogExporter;
+import com.ecommerce.product.bulk.CatalogFormat;
+import com.ecommerce.product.bulk.CatalogImporter;
+import com.ecommerce.product.dto.CatalogImportResponse;
+import com.ecommerce.product.search.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk catalog import into an empty table, re-import over the same names (all updates)
+ * and export, per file format. The file is generated once per trial by exporting a seeded
+ * catalog. The import itself holds two chunks at a time, but the in-memory database and
+ * the search index keep the whole catalog on the heap, so size it to the run:
+ * {@code -p rows=1000000 -jvmArgsAppend -Xmx3g}. Rows per second are printed per import.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class CatalogBulkBenchmark {
+
+    @Param({"csv", "ndjson"})
+    private String format;
+
+    @Param({"200000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbc;
+    private CatalogImporter importer;
+    private CatalogExporter exporter;
+    private CatalogFormat catalogFormat;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContexts.productService("bench-catalog-bulk", false, true);
+        jdbc = context.getBean(JdbcTemplate.class);
+        importer = context.getBean(CatalogImporter.class);
+        exporter = context.getBean(CatalogExporter.class);
+        catalogFormat = CatalogFormat.of(format);
+
+        BenchmarkContexts.seedProducts(jdbc, rows, 1_000);
+        file = Files.createTempFile("catalog", catalogFormat.getExtension());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            exporter.exportCatalog(out, catalogFormat);
+        }
+        System.out.printf("%n%s catalog file for %,d rows: %,d bytes%n", format, rows, Files.size(file));
+    }
+
+    /**
+     * Empties the catalog before each import, so every invocation inserts all rows.
+     */
+    @State(Scope.Benchmark)
+    public static class EmptyCatalog {
+
+        @Setup(Level.Invocation)
+        public void truncate(CatalogBulkBenchmark benchmark) {
+            benchmark.jdbc.execute("TRUNCATE TABLE products RESTART IDENTITY");
+            benchmark.context.getBean(ProductSearchIndex.class).rebuild();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public CatalogImportResponse importCatalog(EmptyCatalog emptyCatalog) throws IOException {
+        return runImport();
+    }
+
+    @Benchmark
+    public CatalogImportResponse reimportCatalog() throws IOException {
+        return runImport();
+    }
+
+    @Benchmark
+    public long exportCatalog() throws IOException {
+        return exporter.exportCatalog(OutputStream.nullOutputStream(), catalogFormat);
+    }
+
+    private CatalogImportResponse runImport() throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            CatalogImportResponse result = importer.importCatalog(in, catalogFormat);
+            System.out.printf("%n%,d rows imported (%,d inserted, %,d updated) at %,d rows/s%n",
+                    result.getRows(), result.getInserted(), result.getUpdated(), result.getRowsPerSecond());
+            return result;
+        }
+    }
+}
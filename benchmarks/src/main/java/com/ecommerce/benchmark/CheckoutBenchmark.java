@@ -0,0 +1,95 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.order.dto.CheckoutRequest;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.service.OrderService;
+import com.ecommerce.order.service.OutboxRelay;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Placing a cart of {@code items} distinct products: as one multi-line order through
+ * checkout, or as one order per item the way clients had to before. Both include relaying
+ * the stock reservations to product-service, so a score is the full cost of one cart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class CheckoutBenchmark {
+
+    private static final int PRODUCTS = 1_000;
+
+    @Param({"1", "5", "20"})
+    private int items;
+
+    private ConfigurableApplicationContext productContext;
+    private ConfigurableApplicationContext orderContext;
+    private OrderService orderService;
+    private OutboxRelay outboxRelay;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productContext = BenchmarkContexts.productService("bench-checkout-products", true, true);
+        BenchmarkContexts.seedProducts(productContext.getBean(JdbcTemplate.class), PRODUCTS, 1_000_000_000);
+        orderContext = BenchmarkContexts.orderService("bench-checkout-orders",
+                "http://localhost:" + BenchmarkContexts.port(productContext));
+        orderService = orderContext.getBean(OrderService.class);
+        outboxRelay = orderContext.getBean(OutboxRelay.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        orderContext.close();
+        productContext.close();
+    }
+
+    @Benchmark
+    public int checkout() {
+        CheckoutRequest request = CheckoutRequest.builder()
+                .customerEmail(customerEmail())
+                .customerName("Benchmark Customer")
+                .shippingAddress("1 Benchmark Street, Springfield")
+                .lines(cart())
+                .build();
+        orderService.checkout(request);
+        return outboxRelay.relayPending();
+    }
+
+    @Benchmark
+    public int orderPerItem() {
+        String customerEmail = customerEmail();
+        for (CheckoutRequest.Line line : cart()) {
+            orderService.createOrder(Order.builder()
+                    .productId(line.getProductId())
+                    .quantity(line.getQuantity())
+                    .customerEmail(customerEmail)
+                    .customerName("Benchmark Customer")
+                    .shippingAddress("1 Benchmark Street, Springfield")
+                    .build());
+        }
+        return outboxRelay.relayPending();
+    }
+
+    private List<CheckoutRequest.Line> cart() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long first = random.nextLong(1, PRODUCTS - items + 2);
+        List<CheckoutRequest.Line> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            lines.add(new CheckoutRequest.Line(first + i, 1 + random.nextInt(3)));
+        }
+        return lines;
+    }
+
+    private static String customerEmail() {
+        return "customer" + ThreadLocalRandom.current().nextInt(10_000) + "@example.com";
+    }
+}
@@ -0,0 +1,130 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.order.dto.OrderSummary;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Order list queries over a large seeded table: entity versus summary projections for the
+ * filtered lists, a customer order page from the in-memory history versus the table,
+ * keyset versus offset paging, and a full scan as one list versus a
+ * stream. Run with {@code -prof gc} to compare allocation; larger tables need
+ * {@code -p rows=2000000 -jvmArgsAppend -Xmx4g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OrderQueryBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int HISTORY_PAGE_SIZE = 20;
+
+    @Param({"500000"})
+    private int rows;
+
+    private int customers;
+    private int products;
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderRepository orderRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Roughly 50 orders per customer and 500 per product
+        customers = Math.max(1, rows / 50);
+        products = Math.max(1, rows / 500);
+        context = BenchmarkContexts.orderService("bench-order-queries", "http://localhost:1");
+        BenchmarkContexts.seedOrders(context.getBean(JdbcTemplate.class), rows, customers, products);
+        orderService = context.getBean(OrderService.class);
+        orderRepository = context.getBean(OrderRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Order> customerOrdersAsEntities() {
+        return orderRepository.findByCustomerEmailOrderByCreatedAtDesc(randomCustomer());
+    }
+
+    @Benchmark
+    public List<OrderSummary> customerOrdersAsSummaries() {
+        return orderRepository.findSummariesByCustomerEmailOrderByCreatedAtDescIdDesc(randomCustomer(), Limit.unlimited());
+    }
+
+    @Benchmark
+    public List<OrderSummary> customerOrderPageFromHistory() {
+        return orderService.getOrdersByCustomer(randomCustomer(), 0, HISTORY_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<OrderSummary> customerOrderPageFromTable() {
+        return orderRepository.findSummariesByCustomerEmailOrderByCreatedAtDescIdDesc(randomCustomer(), Limit.of(HISTORY_PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<Order> productOrdersAsEntities() {
+        return orderRepository.findByProductId(randomProduct());
+    }
+
+    @Benchmark
+    public List<OrderSummary> productOrdersAsSummaries() {
+        return orderService.getOrdersByProduct(randomProduct());
+    }
+
+    @Benchmark
+    public List<Order> deepKeysetPage() {
+        return orderRepository.findByIdGreaterThanOrderByIdAsc((long) rows - 10 * PAGE_SIZE, Limit.of(PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<Order> deepOffsetPage() {
+        int page = rows / PAGE_SIZE - 10;
+        return orderRepository.findAll(PageRequest.of(page, PAGE_SIZE, Sort.by("id"))).getContent();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int findAllOrders() {
+        return orderRepository.findAll().size();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public long streamAllOrders() {
+        LongAdder count = new LongAdder();
+        orderService.streamOrders(order -> count.increment());
+        return count.sum();
+    }
+
+    private String randomCustomer() {
+        return "customer" + ThreadLocalRandom.current().nextInt(customers) + "@example.com";
+    }
+
+    private long randomProduct() {
+        return ThreadLocalRandom.current().nextLong(1, products + 1);
+    }
+}
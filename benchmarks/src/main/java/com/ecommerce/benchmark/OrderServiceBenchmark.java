@@ -0,0 +1,74 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.order.dto.BatchOrderResult;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order creation through {@link OrderService}, priced over HTTP by a product-service running
+ * in the same JVM. Scores are per order, so the single and batch paths compare directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class OrderServiceBenchmark {
+
+    private static final int PRODUCTS = 1_000;
+    private static final int BATCH_SIZE = 100;
+
+    private ConfigurableApplicationContext productContext;
+    private ConfigurableApplicationContext orderContext;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productContext = BenchmarkContexts.productService("bench-order-products", true, true);
+        BenchmarkContexts.seedProducts(productContext.getBean(JdbcTemplate.class), PRODUCTS, 1_000_000_000);
+        orderContext = BenchmarkContexts.orderService("bench-orders",
+                "http://localhost:" + BenchmarkContexts.port(productContext));
+        orderService = orderContext.getBean(OrderService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        orderContext.close();
+        productContext.close();
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder(newOrder());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<BatchOrderResult> createOrdersInBatch() {
+        List<Order> orders = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            orders.add(newOrder());
+        }
+        return orderService.createOrders(orders);
+    }
+
+    private static Order newOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return Order.builder()
+                .productId(random.nextLong(1, PRODUCTS + 1))
+                .quantity(1)
+                .customerEmail("customer" + random.nextInt(10_000) + "@example.com")
+                .customerName("Benchmark Customer")
+                .shippingAddress("1 Benchmark Street, Springfield")
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The full order table over HTTP from order-service, as the NDJSON stream of orders and as
+ * the unparameterised JSON list of order summaries. The score is the time to read the whole
+ * body. The time to first byte and the largest heap left after any GC during the request
+ * are printed after each invocation, the latter as growth over the heap before it: the
+ * in-memory database shares the heap and sits in that baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderStreamBenchmark {
+
+    @Param({"1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private final AtomicLong peakHeapAfterGc = new AtomicLong();
+    private final NotificationListener gcListener = (notification, handback) -> {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long used = info.getGcInfo().getMemoryUsageAfterGc().values().stream().mapToLong(MemoryUsage::getUsed).sum();
+            peakHeapAfterGc.accumulateAndGet(used, Math::max);
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.orderService("bench-order-stream", "http://localhost:1", true);
+        BenchmarkContexts.seedOrders(context.getBean(JdbcTemplate.class), rows, Math.max(1, rows / 50), Math.max(1, rows / 500));
+        client = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + BenchmarkContexts.port(context) + "/api/orders";
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener(gcListener, null, null);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).removeNotificationListener(gcListener);
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public long streamOrders() throws IOException, InterruptedException {
+        return fetch("/stream");
+    }
+
+    @Benchmark
+    public long listAllOrders() throws IOException, InterruptedException {
+        return fetch("");
+    }
+
+    private long fetch(String path) throws IOException, InterruptedException {
+        System.gc();
+        long baseline = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        peakHeapAfterGc.set(baseline);
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        long firstByte = 0;
+        long bytes = 0;
+        try (InputStream body = response.body()) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (bytes == 0) {
+                    firstByte = System.nanoTime();
+                }
+                bytes += read;
+            }
+        }
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+        }
+        System.out.printf("%n%,d bytes, first byte after %,d ms, heap after GC peaked %,d MB over a %,d MB baseline%n",
+                bytes, TimeUnit.NANOSECONDS.toMillis(firstByte - start),
+                (peakHeapAfterGc.get() - baseline) >> 20, baseline >> 20);
+        return bytes;
+    }
+}
@@ -0,0 +1,137 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.product.dto.ProductFilter;
+import com.ecommerce.product.dto.ProductFilterResponse;
+import com.ecommerce.product.dto.ProductLookupResponse;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductFacets;
+import com.ecommerce.product.search.ProductSearchIndex;
+import com.ecommerce.product.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of {@link ProductService} against a seeded catalog, with the product cache
+ * switched on and off. {@code lookupProducts} and {@code lookupProductsPerId} resolve the
+ * same ids, once as a bulk lookup and once as one query per id. The filter benchmarks
+ * combine category, price range and stock, with and without a text query, facets included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ProductServiceBenchmark {
+
+    @Param({"10000"})
+    private int catalogSize;
+
+    @Param({"100"})
+    private int lookupSize;
+
+    @Param({"true", "false"})
+    private boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private List<Long> lookupIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.productService("bench-products", false, cacheEnabled);
+        BenchmarkContexts.seedProducts(context.getBean(JdbcTemplate.class), catalogSize, 1_000);
+        context.getBean(ProductSearchIndex.class).rebuild();
+        context.getBean(ProductFacets.class).rebuild();
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+
+        lookupIds = new ArrayList<>(lookupSize);
+        for (int i = 0; i < lookupSize; i++) {
+            lookupIds.add(randomId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Product> getProductById() {
+        return productService.getProductById(randomId());
+    }
+
+    @Benchmark
+    public ProductLookupResponse lookupProducts() {
+        return productService.lookupProducts(lookupIds);
+    }
+
+    @Benchmark
+    public void lookupProductsPerId(Blackhole blackhole) {
+        for (Long id : lookupIds) {
+            blackhole.consume(productService.getProductById(id));
+        }
+    }
+
+    @Benchmark
+    public List<Product> search() {
+        return productService.search("wireless mouse", 20);
+    }
+
+    @Benchmark
+    public ProductFilterResponse filterProducts() {
+        return productService.filter(ProductFilter.builder()
+                .category(List.of(randomCategory()))
+                .minPrice(new BigDecimal("50"))
+                .maxPrice(new BigDecimal("250"))
+                .inStock(true)
+                .sort(ProductFilter.Sort.PRICE_ASC)
+                .limit(20)
+                .build());
+    }
+
+    @Benchmark
+    public ProductFilterResponse filterProductsByText() {
+        return productService.filter(ProductFilter.builder()
+                .q("mouse")
+                .maxPrice(new BigDecimal("250"))
+                .inStock(true)
+                .limit(20)
+                .build());
+    }
+
+    @Benchmark
+    public List<Product> getByCategory() {
+        return productService.getByCategory(randomCategory());
+    }
+
+    @Benchmark
+    public List<Product> getProductsPage() {
+        return productService.getProductsPage(randomId(), 100);
+    }
+
+    @Benchmark
+    public Optional<Product> findByIdFromRepository() {
+        return productRepository.findById(randomId());
+    }
+
+    private static String randomCategory() {
+        return BenchmarkContexts.CATEGORIES[ThreadLocalRandom.current().nextInt(BenchmarkContexts.CATEGORIES.length)];
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, catalogSize + 1);
+    }
+}
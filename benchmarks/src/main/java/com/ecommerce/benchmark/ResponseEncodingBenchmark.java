@@ -0,0 +1,119 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding cost of a 10k-item product or order list response in each format the services
+ * negotiate, with and without gzip, using the mappers the services register. The encoded
+ * payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ResponseEncodingBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"identity", "gzip"})
+    private String encoding;
+
+    @Param({"10000"})
+    private int size;
+
+    private ObjectMapper productMapper;
+    private ObjectMapper orderMapper;
+    private List<Product> products;
+    private List<Order> orders;
+    private byte[] productPayload;
+    private byte[] orderPayload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (ConfigurableApplicationContext context = BenchmarkContexts.productService("bench-encoding-products", false, false)) {
+            BenchmarkContexts.seedProducts(context.getBean(JdbcTemplate.class), size, 1_000);
+            products = context.getBean(ProductRepository.class).findAll();
+            productMapper = mapper(context);
+        }
+        try (ConfigurableApplicationContext context = BenchmarkContexts.orderService("bench-encoding-orders", "http://localhost:1")) {
+            BenchmarkContexts.seedOrders(context.getBean(JdbcTemplate.class), size, 100, 100);
+            orders = context.getBean(OrderRepository.class).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(size));
+            orderMapper = mapper(context);
+        }
+        productPayload = encode(productMapper, products);
+        orderPayload = encode(orderMapper, orders);
+        System.out.printf("%n%s/%s payload for %d items: products %,d bytes, orders %,d bytes%n",
+                format, encoding, size, productPayload.length, orderPayload.length);
+    }
+
+    private ObjectMapper mapper(ConfigurableApplicationContext context) {
+        return switch (format) {
+            case "smile" -> context.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+            case "cbor" -> context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+            default -> context.getBean(ObjectMapper.class);
+        };
+    }
+
+    @Benchmark
+    public byte[] encodeProducts() throws IOException {
+        return encode(productMapper, products);
+    }
+
+    @Benchmark
+    public List<Product> decodeProducts() throws IOException {
+        try (InputStream in = decompress(productPayload)) {
+            return productMapper.readValue(in, new TypeReference<>() {
+            });
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeOrders() throws IOException {
+        return encode(orderMapper, orders);
+    }
+
+    @Benchmark
+    public List<Order> decodeOrders() throws IOException {
+        try (InputStream in = decompress(orderPayload)) {
+            return orderMapper.readValue(in, new TypeReference<>() {
+            });
+        }
+    }
+
+    private byte[] encode(ObjectMapper mapper, Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        try (OutputStream out = "gzip".equals(encoding) ? new GZIPOutputStream(bytes, 8192) : bytes) {
+            mapper.writeValue(out, value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private InputStream decompress(byte[] payload) throws IOException {
+        InputStream in = new ByteArrayInputStream(payload);
+        return "gzip".equals(encoding) ? new GZIPInputStream(in, 8192) : in;
+    }
+}
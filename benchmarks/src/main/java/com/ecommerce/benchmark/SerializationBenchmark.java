@@ -0,0 +1,77 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of product and order lists as the controllers return them, using
+ * the ObjectMapper each service configures. Lists are loaded from seeded databases once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private ObjectMapper productMapper;
+    private ObjectMapper orderMapper;
+    private List<Product> products;
+    private List<Order> orders;
+    private byte[] productJson;
+    private byte[] orderJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (ConfigurableApplicationContext context = BenchmarkContexts.productService("bench-json-products", false, false)) {
+            BenchmarkContexts.seedProducts(context.getBean(JdbcTemplate.class), size, 1_000);
+            products = context.getBean(ProductRepository.class).findAll();
+            productMapper = context.getBean(ObjectMapper.class);
+        }
+        try (ConfigurableApplicationContext context = BenchmarkContexts.orderService("bench-json-orders", "http://localhost:1")) {
+            BenchmarkContexts.seedOrders(context.getBean(JdbcTemplate.class), size, 100, 100);
+            orders = context.getBean(OrderRepository.class).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(size));
+            orderMapper = context.getBean(ObjectMapper.class);
+        }
+        productJson = productMapper.writeValueAsBytes(products);
+        orderJson = orderMapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws IOException {
+        return productMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public List<Product> deserializeProducts() throws IOException {
+        return productMapper.readValue(productJson, new TypeReference<>() {
+        });
+    }
+
+    @Benchmark
+    public byte[] serializeOrders() throws IOException {
+        return orderMapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public List<Order> deserializeOrders() throws IOException {
+        return orderMapper.readValue(orderJson, new TypeReference<>() {
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductService#updateStock} from many threads. With one hot product every update
+ * contends for the same row; raising {@code hotProducts} spreads the load. Compare thread
+ * counts with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Threads(8)
+public class StockContentionBenchmark {
+
+    @Param({"1", "64"})
+    private int hotProducts;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.productService("bench-stock", false, true);
+        // Enough stock that reservations never run out during a run
+        BenchmarkContexts.seedProducts(context.getBean(JdbcTemplate.class), hotProducts, 1_000_000_000);
+        productService = context.getBean(ProductService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Product reserveStock() {
+        return productService.updateStock(ThreadLocalRandom.current().nextLong(1, hotProducts + 1), -1);
+    }
+}
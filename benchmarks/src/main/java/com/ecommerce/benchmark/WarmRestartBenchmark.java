@@ -0,0 +1,89 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product-service restarted on H2 files that already hold a large catalog, as after a
+ * redeploy with the persistent profile. {@code restart} times closing the running instance
+ * and starting a new one on the same files: Flyway and Hibernate validation plus the search
+ * index and facets rebuilt from the table. The read benchmarks measure the restarted service
+ * with Hibernate's second-level and query cache on and off; reads draw from the
+ * {@link #HOT_PRODUCTS} most viewed products and the first {@link #HOT_PAGES} pages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class WarmRestartBenchmark {
+
+    private static final int HOT_PRODUCTS = 10_000;
+    private static final int HOT_PAGES = 100;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"200000"})
+    private int catalogSize;
+
+    @Param({"true", "false"})
+    private boolean secondLevelCache;
+
+    private Path dataDir;
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("bench-warm-restart");
+        try (ConfigurableApplicationContext seeding = BenchmarkContexts.productServiceOnFile(dataDir, false)) {
+            BenchmarkContexts.seedProducts(seeding.getBean(JdbcTemplate.class), catalogSize, 1_000);
+        }
+        start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public ProductService restart() {
+        context.close();
+        start();
+        return productService;
+    }
+
+    @Benchmark
+    public Optional<Product> getProductById() {
+        return productService.getProductById(ThreadLocalRandom.current().nextLong(1, Math.min(HOT_PRODUCTS, catalogSize) + 1));
+    }
+
+    @Benchmark
+    public List<Product> getProductsPage() {
+        long after = (long) ThreadLocalRandom.current().nextInt(HOT_PAGES) * PAGE_SIZE;
+        return productService.getProductsPage(after, PAGE_SIZE);
+    }
+
+    private void start() {
+        context = BenchmarkContexts.productServiceOnFile(dataDir, secondLevelCache);
+        productService = context.getBean(ProductService.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost the limiter filters add to a request that passes them, against a chain that
+ * completes at once. {@code clients} distinct keys arrive in random order, and limits are
+ * set high enough that nothing is rejected. Run with {@code -t 8} to add contention on the
+ * shared counters. Lives in the filters' package because {@link ClientKeys} is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayLimiterBenchmark {
+
+    private static final String KEY_HEADER = "X-Api-Key";
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+
+    @Param({"10000"})
+    private int clients;
+
+    private MockServerWebExchange[] exchanges;
+    private GatewayFilter passThrough;
+    private GatewayFilter concurrencyPerRoute;
+    private GatewayFilter concurrencyPerClient;
+    private GatewayFilter ratePerClient;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        exchanges = new MockServerWebExchange[clients];
+        for (int i = 0; i < clients; i++) {
+            exchanges[i] = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products/1").header(KEY_HEADER, "client-" + i));
+        }
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        passThrough = (exchange, chain) -> chain.filter(exchange);
+
+        ConcurrencyLimitGatewayFilterFactory concurrency = new ConcurrencyLimitGatewayFilterFactory(meterRegistry);
+        ConcurrencyLimitGatewayFilterFactory.Config route = new ConcurrencyLimitGatewayFilterFactory.Config();
+        route.setMaxInFlight(Integer.MAX_VALUE);
+        concurrencyPerRoute = concurrency.apply(route);
+        ConcurrencyLimitGatewayFilterFactory.Config perClient = new ConcurrencyLimitGatewayFilterFactory.Config();
+        perClient.setMaxInFlight(Integer.MAX_VALUE);
+        perClient.setPerClient(true);
+        perClient.setKeyHeader(KEY_HEADER);
+        concurrencyPerClient = concurrency.apply(perClient);
+
+        LocalRateLimitGatewayFilterFactory.Config rate = new LocalRateLimitGatewayFilterFactory.Config();
+        rate.setReplenishRate(1_000_000_000);
+        rate.setBurstCapacity(Integer.MAX_VALUE);
+        rate.setKeyHeader(KEY_HEADER);
+        ratePerClient = new LocalRateLimitGatewayFilterFactory(meterRegistry).apply(rate);
+    }
+
+    @Benchmark
+    public Void noLimiter() {
+        return passThrough.filter(randomExchange(), CHAIN).block();
+    }
+
+    @Benchmark
+    public Void concurrencyLimitPerRoute() {
+        return concurrencyPerRoute.filter(randomExchange(), CHAIN).block();
+    }
+
+    @Benchmark
+    public Void concurrencyLimitPerClient() {
+        return concurrencyPerClient.filter(randomExchange(), CHAIN).block();
+    }
+
+    @Benchmark
+    public Void rateLimitPerClient() {
+        return ratePerClient.filter(randomExchange(), CHAIN).block();
+    }
+
+    private MockServerWebExchange randomExchange() {
+        return exchanges[ThreadLocalRandom.current().nextInt(exchanges.length)];
+    }
+}
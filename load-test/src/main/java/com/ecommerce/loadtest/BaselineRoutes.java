@@ -0,0 +1,59 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.gateway.filter.AdaptiveTimeoutGatewayFilterFactory;
+import com.ecommerce.gateway.filter.ResponseCacheGatewayFilterFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.factory.SpringCloudCircuitBreakerFilterFactory;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * A copy of the gateway's product-service route under {@code /baseline}, with the same
+ * filters in the same order except LocalRateLimit and ConcurrencyLimit. Comparing
+ * {@link LoadEndpoint#PRODUCT_BY_ID} with {@link LoadEndpoint#PRODUCT_BY_ID_NO_LIMITERS}
+ * shows the latency the limiters add.
+ */
+@Configuration
+class BaselineRoutes {
+
+    static final String PREFIX = "/baseline";
+
+    @Bean
+    RouteLocator baselineRouteLocator(RouteLocatorBuilder builder,
+                                SpringCloudCircuitBreakerFilterFactory circuitBreaker,
+                                AdaptiveTimeoutGatewayFilterFactory adaptiveTimeout,
+                                ResponseCacheGatewayFilterFactory responseCache,
+                                @Value("${product.service.url}") String productServiceUrl) {
+        SpringCloudCircuitBreakerFilterFactory.Config breaker = new SpringCloudCircuitBreakerFilterFactory.Config()
+                .setName("productServiceBaseline")
+                .setFallbackUri("forward:/fallback/products");
+        breaker.setStatusCodes(Set.of("502", "503", "504"));
+
+        AdaptiveTimeoutGatewayFilterFactory.Config timeout = new AdaptiveTimeoutGatewayFilterFactory.Config();
+        timeout.setRouteId("product-service-baseline");
+        timeout.setMinTimeout(Duration.ofMillis(250));
+        timeout.setMaxTimeout(Duration.ofSeconds(5));
+
+        ResponseCacheGatewayFilterFactory.Config cache = new ResponseCacheGatewayFilterFactory.Config();
+        cache.setTtl(Duration.ofSeconds(30));
+
+        // Orders match the position each filter has in the application.yml route
+        return builder.routes()
+                .route("product-service-baseline", route -> route
+                        .path(PREFIX + "/api/products/**")
+                        .filters(f -> f
+                                .stripPrefix(1)
+                                .addRequestHeader("X-Request-Source", "api-gateway")
+                                .addResponseHeader("X-Response-Service", "product-service")
+                                .filter(circuitBreaker.apply(breaker), 5)
+                                .filter(adaptiveTimeout.apply(timeout), 6)
+                                .filter(responseCache.apply(cache)))
+                        .uri(productServiceUrl))
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes recorded for one endpoint. Latency runs from the time a request was
+ * scheduled, not sent, so time spent queued behind slow requests is counted.
+ */
+final class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final LoadEndpoint endpoint;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    EndpointStats(LoadEndpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    LoadEndpoint endpoint() {
+        return endpoint;
+    }
+
+    void recordResponse(int status, long latencyNanos) {
+        recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    /**
+     * A request that failed without a response, e.g. a refused connection or a client timeout.
+     */
+    void recordError(long latencyNanos) {
+        recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        errors.increment();
+    }
+
+    /**
+     * A request that was never sent because the load generator itself was saturated.
+     */
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    Histogram latencies() {
+        return recorder.getIntervalHistogram();
+    }
+
+    Map<Integer, Long> statuses() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.loadtest;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The requests a simulated shopper sends, grouped into the browse, search and checkout
+ * scenarios of {@link LoadTestOptions#mix()}. Weights are relative within a scenario.
+ */
+enum LoadEndpoint {
+
+    PRODUCT_PAGE("browse", 20) {
+        @Override
+        LoadRequest next(int products, ThreadLocalRandom random) {
+            return LoadRequest.get("/api/products?after=" + random.nextInt(products) + "&limit=20");
+        }
+    },
+    PRODUCT_BY_ID("browse", 25) {
+        @Override
+        LoadRequest next(int products, ThreadLocalRandom random) {
+            return LoadRequest.get("/api/products/" + productId(products, random));
+        }
+    },
+    PRODUCT_BY_ID_NO_LIMITERS("browse", 25) {
+        @Override
+        LoadRequest next(int products, ThreadLocalRandom random) {
+            return LoadRequest.get(BaselineRoutes.PREFIX + "/api/products/" + productId(products, random));
+        }
+    },
+    PRODUCTS_BY_CATEGORY("browse", 10) {
+        @Override
+        LoadRequest next(int products, ThreadLocalRandom random) {
+            return LoadRequest.get("/api/products?category=" + CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        }
+    },
+    PRODUCT_SEARCH("search", 100) {
+        @Override
+        LoadRequest next(int products, ThreadLocalRandom random) {
+            return LoadRequest.get("/api/products?name=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)] + "&limit=20");
+        }
+    },
+    CART_LOOKUP("checkout", 30) {
+        @Override
+        LoadRequest next(int products, ThreadLocalRandom random) {
+            StringJoiner ids = new StringJoiner(",", "{\"ids\":[", "]}");
+            for (int i = 0; i < 5; i++) {
+                ids.add(String.valueOf(productId(products, random)));
+            }
+            return new LoadRequest(HttpMethod.POST, "/api/products/lookup", ids.toString());
+        }
+    },
+    CREATE_ORDER("checkout", 50) {
+        @Override
+        LoadRequest next(int products, ThreadLocalRandom random) {
+            return new LoadRequest(HttpMethod.POST, "/api/orders", """
+                    {"productId":%d,"quantity":1,"customerEmail":"%s","customerName":"Load Test",\
+                    "shippingAddress":"1 Load Street, Springfield"}""".formatted(productId(products, random), customer(random)));
+        }
+    },
+    CUSTOMER_ORDERS("checkout", 20) {
+        @Override
+        LoadRequest next(int products, ThreadLocalRandom random) {
+            return LoadRequest.get("/api/orders?customerEmail=" + customer(random));
+        }
+    };
+
+    static final String[] CATEGORIES = {"Electronics", "Books", "Clothing", "Home", "Sports"};
+    static final String[] SEARCH_TERMS = {"wireless", "keyboard", "running+shoes", "lamp", "novel", "garden"};
+    private static final int CUSTOMERS = 1_000;
+
+    private final String scenario;
+    private final int weight;
+
+    LoadEndpoint(String scenario, int weight) {
+        this.scenario = scenario;
+        this.weight = weight;
+    }
+
+    abstract LoadRequest next(int products, ThreadLocalRandom random);
+
+    String scenario() {
+        return scenario;
+    }
+
+    int weight() {
+        return weight;
+    }
+
+    String label() {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+    private static long productId(int products, ThreadLocalRandom random) {
+        return random.nextLong(1, products + 1);
+    }
+
+    private static String customer(ThreadLocalRandom random) {
+        return "shopper" + random.nextInt(CUSTOMERS) + "@example.com";
+    }
+
+    record LoadRequest(HttpMethod method, String path, String body) {
+
+        static LoadRequest get(String path) {
+            return new LoadRequest(HttpMethod.GET, path, null);
+        }
+    }
+}
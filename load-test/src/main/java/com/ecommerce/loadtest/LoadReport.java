@@ -0,0 +1,97 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-endpoint throughput and latency percentiles of a run, plus the CPU and heap the whole
+ * topology used, printed as a table and optionally written as JSON.
+ */
+final class LoadReport {
+
+    record EndpointResult(String endpoint, String scenario, long requests, double throughput,
+                          Map<Integer, Long> statuses, long errors, long dropped,
+                          double p50Ms, double p90Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+
+    record ResourceUsage(double averageCpuCores, long peakHeapUsedBytes, int availableProcessors) {
+    }
+
+    record Result(LoadTestOptions options, double throughput, List<EndpointResult> endpoints, ResourceUsage resources) {
+    }
+
+    private LoadReport() {
+    }
+
+    static Result build(LoadTestOptions options, List<EndpointStats> stats, ResourceUsage resources) {
+        double seconds = options.duration().toNanos() / 1e9;
+        List<EndpointResult> endpoints = new ArrayList<>();
+        long total = 0;
+        for (EndpointStats endpointStats : stats) {
+            Histogram latencies = endpointStats.latencies();
+            long requests = latencies.getTotalCount();
+            total += requests;
+            endpoints.add(new EndpointResult(
+                    endpointStats.endpoint().label(),
+                    endpointStats.endpoint().scenario(),
+                    requests,
+                    requests / seconds,
+                    endpointStats.statuses(),
+                    endpointStats.errors(),
+                    endpointStats.dropped(),
+                    millis(latencies, 50),
+                    millis(latencies, 90),
+                    millis(latencies, 99),
+                    millis(latencies, 99.9),
+                    latencies.getTotalCount() == 0 ? 0 : latencies.getMaxValue() / 1e6));
+        }
+        return new Result(options, total / seconds, endpoints, resources);
+    }
+
+    static String format(Result result) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%nOpen-loop load: %d req/s offered, %.1f req/s completed over %ds, %d clients%n",
+                result.options().rate(), result.throughput(), result.options().duration().toSeconds(),
+                result.options().clients()));
+        out.append(String.format("%-28s %9s %9s %8s %8s %8s %9s %9s  %s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses"));
+        for (EndpointResult endpoint : result.endpoints()) {
+            Map<String, Long> outcomes = new LinkedHashMap<>();
+            endpoint.statuses().forEach((status, count) -> outcomes.put(String.valueOf(status), count));
+            if (endpoint.errors() > 0) {
+                outcomes.put("error", endpoint.errors());
+            }
+            if (endpoint.dropped() > 0) {
+                outcomes.put("dropped", endpoint.dropped());
+            }
+            out.append(String.format("%-28s %9d %9.1f %8.1f %8.1f %8.1f %9.1f %9.1f  %s%n",
+                    endpoint.endpoint(), endpoint.requests(), endpoint.throughput(),
+                    endpoint.p50Ms(), endpoint.p90Ms(), endpoint.p99Ms(), endpoint.p999Ms(), endpoint.maxMs(), outcomes));
+        }
+        ResourceUsage resources = result.resources();
+        out.append(String.format("All three services together: %.2f CPU cores on average (of %d), peak heap used %d MiB%n",
+                resources.averageCpuCores(), resources.availableProcessors(), resources.peakHeapUsedBytes() / (1024 * 1024)));
+        return out.toString();
+    }
+
+    static void write(Result result, Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        new ObjectMapper()
+                .findAndRegisterModules()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(path.toFile(), result);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+}
@@ -0,0 +1,132 @@
+package com.ecommerce.loadtest;
+
+import com.sun.management.OperatingSystemMXBean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots api-gateway, product-service and order-service in one JVM, seeds a catalog and
+ * drives a browse / search / checkout mix through the gateway at a fixed request rate.
+ * <p>
+ * Run with {@code mvn -B compile exec:exec -Dloadtest.args="--rate=500 --duration=2m"}; see
+ * {@link LoadTestOptions} for all options.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            run(LoadTestOptions.parse(args));
+        } catch (Exception e) {
+            e.printStackTrace();
+            // Contexts that did start keep non-daemon threads alive
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static void run(LoadTestOptions options) throws Exception {
+        try (LocalTopology topology = LocalTopology.start(options)) {
+            seedCatalog(topology.productServiceUrl(), options.products());
+            System.out.printf("Seeded %d products; offering %d req/s through %s for %ds after a %ds warmup%n",
+                    options.products(), options.rate(), topology.gatewayUrl(),
+                    options.duration().toSeconds(), options.warmup().toSeconds());
+
+            ResourceSampler sampler = new ResourceSampler();
+            List<EndpointStats> stats;
+            try (OpenLoopDriver driver = new OpenLoopDriver(topology.gatewayUrl(), options)) {
+                sampler.startAfter(options.warmup());
+                stats = driver.run();
+            } finally {
+                sampler.stop();
+            }
+
+            LoadReport.Result result = LoadReport.build(options, stats, sampler.usage());
+            System.out.print(LoadReport.format(result));
+            if (options.report() != null) {
+                LoadReport.write(result, options.report());
+                System.out.println("Report written to " + options.report());
+            }
+        }
+    }
+
+    /**
+     * Creates products directly on product-service, bypassing the gateway's rate limits.
+     */
+    private static void seedCatalog(String productServiceUrl, int products) {
+        HttpClient client = HttpClient.create().baseUrl(productServiceUrl);
+        Flux.range(1, products)
+                .flatMap(i -> client
+                        .headers(headers -> headers.set("Content-Type", "application/json"))
+                        .post()
+                        .uri("/api/products")
+                        .send(ByteBufFlux.fromString(Mono.just(product(i))))
+                        .responseSingle((response, body) -> {
+                            if (response.status().code() != 201) {
+                                return Mono.error(new IllegalStateException(
+                                        "Seeding failed with status " + response.status().code()));
+                            }
+                            return body.asByteArray();
+                        }), 32)
+                .blockLast(Duration.ofMinutes(5));
+    }
+
+    private static String product(int i) {
+        String[] names = {"Wireless Mouse", "Mechanical Keyboard", "Running Shoes", "Desk Lamp", "Paperback Novel", "Garden Hose"};
+        String category = LoadEndpoint.CATEGORIES[i % LoadEndpoint.CATEGORIES.length];
+        return """
+                {"name":"%s %d","description":"Load test product %d in %s","price":%d.99,"stock":1000000000,"category":"%s"}\
+                """.formatted(names[i % names.length], i, i, category, 5 + i % 200, category);
+    }
+
+    /**
+     * Samples process CPU time and heap usage of the shared JVM during the recorded phase.
+     */
+    private static final class ResourceSampler {
+
+        private final OperatingSystemMXBean os = ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class);
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        private final AtomicLong peakHeap = new AtomicLong();
+        private volatile long startCpu = -1;
+        private volatile long startWall;
+        private volatile long endCpu;
+        private volatile long endWall;
+
+        void startAfter(Duration delay) {
+            executor.schedule(() -> {
+                startCpu = os.getProcessCpuTime();
+                startWall = System.nanoTime();
+            }, delay.toMillis(), TimeUnit.MILLISECONDS);
+            executor.scheduleAtFixedRate(() -> {
+                if (startCpu >= 0) {
+                    peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                }
+            }, delay.toMillis(), 250, TimeUnit.MILLISECONDS);
+        }
+
+        void stop() {
+            endCpu = os.getProcessCpuTime();
+            endWall = System.nanoTime();
+            executor.shutdownNow();
+        }
+
+        LoadReport.ResourceUsage usage() {
+            double cores = startCpu < 0 ? 0 : (double) (endCpu - startCpu) / (endWall - startWall);
+            return new LoadReport.ResourceUsage(cores, peakHeap.get(), Runtime.getRuntime().availableProcessors());
+        }
+    }
+}
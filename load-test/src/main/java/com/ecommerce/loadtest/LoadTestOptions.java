@@ -0,0 +1,73 @@
+package com.ecommerce.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options of {@link LoadTest}, given as {@code --name=value}.
+ *
+ * @param rate            requests per second, issued on schedule whether or not earlier ones completed
+ * @param warmup          time at the start of the run that is not recorded
+ * @param duration        recorded time after the warmup
+ * @param clients         simulated clients; each sends from its own loopback address, so the
+ *                        gateway's per-client limits apply to each one separately
+ * @param products        products seeded into the catalog before the run
+ * @param mix             share of requests per scenario ({@code browse}, {@code search}, {@code checkout})
+ * @param limiterBaseline also send product reads through a gateway route without the limiter filters
+ * @param logLevel        level of the {@code com.ecommerce} loggers in all three services
+ * @param report          where the JSON report is written, or {@code null}
+ */
+record LoadTestOptions(int rate, Duration warmup, Duration duration, int clients, int products,
+                       Map<String, Integer> mix, boolean limiterBaseline, String logLevel, Path report) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                duration(values.getOrDefault("warmup", "15s")),
+                duration(values.getOrDefault("duration", "60s")),
+                Integer.parseInt(values.getOrDefault("clients", "50")),
+                Integer.parseInt(values.getOrDefault("products", "1000")),
+                mix(values.getOrDefault("mix", "browse:60,search:25,checkout:15")),
+                Boolean.parseBoolean(values.getOrDefault("limiter-baseline", "false")),
+                values.getOrDefault("log-level", "WARN"),
+                values.containsKey("report") ? Path.of(values.get("report")) : null);
+        if (options.rate() < 1 || options.clients() < 1 || options.clients() > 250 || options.products() < 1) {
+            throw new IllegalArgumentException("rate and products must be positive and clients between 1 and 250");
+        }
+        return options;
+    }
+
+    /**
+     * Accepts {@code 90s}, {@code 2m} or a plain number of seconds.
+     */
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value.endsWith("s") ? value.substring(0, value.length() - 1) : value));
+    }
+
+    private static Map<String, Integer> mix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] entry = part.split(":");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Expected scenario:share in mix but got: " + part);
+            }
+            mix.put(entry[0].trim(), Integer.parseInt(entry[1].trim()));
+        }
+        return mix;
+    }
+}
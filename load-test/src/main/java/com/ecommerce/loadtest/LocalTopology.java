@@ -0,0 +1,81 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.gateway.ApiGatewayApplication;
+import com.ecommerce.order.OrderServiceApplication;
+import com.ecommerce.product.ProductServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * product-service, order-service and api-gateway running in this JVM on random ports, each
+ * with its own application.yml and wired to the others over HTTP as in production.
+ */
+final class LocalTopology implements AutoCloseable {
+
+    private final ConfigurableApplicationContext productService;
+    private final ConfigurableApplicationContext orderService;
+    private final ConfigurableApplicationContext gateway;
+
+    private LocalTopology(ConfigurableApplicationContext productService,
+                          ConfigurableApplicationContext orderService,
+                          ConfigurableApplicationContext gateway) {
+        this.productService = productService;
+        this.orderService = orderService;
+        this.gateway = gateway;
+    }
+
+    static LocalTopology start(LoadTestOptions options) {
+        ConfigurableApplicationContext productService = run("product-service", WebApplicationType.SERVLET,
+                options, List.of(), ProductServiceApplication.class);
+        String productUrl = "--product.service.url=" + baseUrl(productService);
+        ConfigurableApplicationContext orderService = run("order-service", WebApplicationType.SERVLET,
+                options, List.of(productUrl), OrderServiceApplication.class);
+        String orderUrl = "--order.service.url=" + baseUrl(orderService);
+        ConfigurableApplicationContext gateway = options.limiterBaseline()
+                ? run("api-gateway", WebApplicationType.REACTIVE, options, List.of(productUrl, orderUrl),
+                        ApiGatewayApplication.class, BaselineRoutes.class)
+                : run("api-gateway", WebApplicationType.REACTIVE, options, List.of(productUrl, orderUrl),
+                        ApiGatewayApplication.class);
+        return new LocalTopology(productService, orderService, gateway);
+    }
+
+    String gatewayUrl() {
+        return baseUrl(gateway);
+    }
+
+    String productServiceUrl() {
+        return baseUrl(productService);
+    }
+
+    @Override
+    public void close() {
+        gateway.close();
+        orderService.close();
+        productService.close();
+    }
+
+    private static ConfigurableApplicationContext run(String service, WebApplicationType type, LoadTestOptions options,
+                                                      List<String> extraArgs, Class<?>... sources) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.config.location=classpath:/" + service + "/",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.main.web-application-type=" + type.name().toLowerCase(),
+                // The gateway auto-configuration is on every context's classpath here
+                "--spring.cloud.gateway.enabled=" + (type == WebApplicationType.REACTIVE),
+                "--logging.level.com.ecommerce=" + options.logLevel(),
+                "--logging.level.org.springframework.cloud.gateway=" + options.logLevel()));
+        args.addAll(extraArgs);
+        return new SpringApplicationBuilder(sources)
+                .web(type)
+                .run(args.toArray(String[]::new));
+    }
+
+    private static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+    }
+}
@@ -0,0 +1,172 @@
+package com.ecommerce.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed rate regardless of how fast responses come back (an open
+ * workload), so a slow system sees a growing queue instead of a slower client. Requests
+ * rotate over the simulated clients, each bound to its own loopback address.
+ */
+final class OpenLoopDriver implements AutoCloseable {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_IN_FLIGHT = 20_000;
+
+    private final LoadTestOptions options;
+    private final ConnectionProvider connections;
+    private final List<HttpClient> clients = new ArrayList<>();
+    private final LoadEndpoint[] schedule;
+    private final Map<LoadEndpoint, EndpointStats> stats = new EnumMap<>(LoadEndpoint.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    OpenLoopDriver(String baseUrl, LoadTestOptions options) {
+        this.options = options;
+        this.connections = ConnectionProvider.builder("load-test")
+                .maxConnections(options.clients() * 32)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(REQUEST_TIMEOUT)
+                .build();
+        for (int i = 0; i < options.clients(); i++) {
+            HttpClient client = HttpClient.create(connections)
+                    .baseUrl(baseUrl)
+                    .responseTimeout(REQUEST_TIMEOUT);
+            if (options.clients() > 1) {
+                InetSocketAddress local = new InetSocketAddress("127.0.0." + (i + 2), 0);
+                client = client.bindAddress(() -> local);
+            }
+            clients.add(client);
+        }
+        this.schedule = weightedSchedule(options);
+        for (LoadEndpoint endpoint : LoadEndpoint.values()) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+    }
+
+    /**
+     * Runs the warmup and the recorded phase, then waits for outstanding requests.
+     *
+     * @return per-endpoint stats of the recorded phase, for the endpoints in the mix
+     */
+    List<EndpointStats> run() {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long recordFrom = start + options.warmup().toNanos();
+        long end = recordFrom + options.duration().toNanos();
+        boolean warmupReset = false;
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            boolean record = intended >= recordFrom;
+            if (record && !warmupReset) {
+                stats.values().forEach(EndpointStats::latencies);
+                warmupReset = true;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadEndpoint endpoint = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            if (inFlight.get() >= MAX_IN_FLIGHT) {
+                if (record) {
+                    stats.get(endpoint).recordDropped();
+                }
+                continue;
+            }
+            send(clients.get((int) (i % clients.size())), endpoint, intended, record);
+        }
+
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        List<LoadEndpoint> scheduled = Arrays.asList(schedule);
+        return stats.values().stream()
+                .filter(s -> scheduled.contains(s.endpoint()))
+                .toList();
+    }
+
+    private void send(HttpClient client, LoadEndpoint endpoint, long intended, boolean record) {
+        LoadEndpoint.LoadRequest request = endpoint.next(options.products(), ThreadLocalRandom.current());
+        EndpointStats endpointStats = stats.get(endpoint);
+        inFlight.incrementAndGet();
+
+        HttpClient.ResponseReceiver<?> receiver;
+        if (request.body() != null) {
+            receiver = client
+                    .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON))
+                    .request(request.method())
+                    .uri(request.path())
+                    .send(ByteBufFlux.fromString(Mono.just(request.body())));
+        } else {
+            receiver = client.request(request.method()).uri(request.path());
+        }
+        receiver.responseSingle((response, body) -> body.asByteArray()
+                        .then(Mono.just(response.status().code())))
+                .subscribe(
+                        status -> {
+                            if (record) {
+                                endpointStats.recordResponse(status, System.nanoTime() - intended);
+                            }
+                        },
+                        error -> {
+                            if (record) {
+                                endpointStats.recordError(System.nanoTime() - intended);
+                            }
+                            inFlight.decrementAndGet();
+                        },
+                        inFlight::decrementAndGet);
+    }
+
+    /**
+     * Endpoints repeated in proportion to scenario share times endpoint weight, so picking a
+     * uniformly random element follows the mix.
+     */
+    private static LoadEndpoint[] weightedSchedule(LoadTestOptions options) {
+        List<LoadEndpoint> schedule = new ArrayList<>();
+        for (Map.Entry<String, Integer> scenario : options.mix().entrySet()) {
+            List<LoadEndpoint> endpoints = Arrays.stream(LoadEndpoint.values())
+                    .filter(e -> e.scenario().equals(scenario.getKey()) && includes(options, e))
+                    .toList();
+            if (endpoints.isEmpty()) {
+                throw new IllegalArgumentException("Unknown scenario in mix: " + scenario.getKey());
+            }
+            int totalWeight = endpoints.stream().mapToInt(LoadEndpoint::weight).sum();
+            for (LoadEndpoint endpoint : endpoints) {
+                long slots = Math.round(scenario.getValue() * 100.0 * endpoint.weight() / totalWeight);
+                for (long i = 0; i < slots; i++) {
+                    schedule.add(endpoint);
+                }
+            }
+        }
+        return schedule.toArray(LoadEndpoint[]::new);
+    }
+
+    private static boolean includes(LoadTestOptions options, LoadEndpoint endpoint) {
+        return options.limiterBaseline() || endpoint != LoadEndpoint.PRODUCT_BY_ID_NO_LIMITERS;
+    }
+
+    @Override
+    public void close() {
+        connections.dispose();
+    }
+}
@@ -0,0 +1,167 @@
+package com.ecommerce.order.client;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking product-service client used to price and validate orders.
+ * <p>
+ * Lookups go through an async cache, so concurrent requests for the same product share
+ * one in-flight HTTP call and its result is reused for a short TTL. Failed or empty
+ * lookups are never cached. Multi-product lookups are resolved with the bulk lookup
+ * endpoint rather than one call per product.
+ */
+@Slf4j
+@Component
+public class ProductClient {
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+    private static final int LOOKUP_CONCURRENCY = 4;
+
+    private final WebClient webClient;
+    private final AsyncLoadingCache<Long, ProductInfo> products;
+
+    public ProductClient(WebClient productWebClient,
+                         @Value("${product.service.cache-ttl:2s}") Duration cacheTtl,
+                         @Value("${product.service.cache-size:10000}") long cacheSize,
+                         MeterRegistry meterRegistry) {
+        this.webClient = productWebClient;
+        this.products = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<Long, ProductInfo>() {
+                    @Override
+                    public CompletableFuture<ProductInfo> asyncLoad(Long id, Executor executor) {
+                        return fetch(id).toFuture();
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<Long, ProductInfo>> asyncLoadAll(Set<? extends Long> ids, Executor executor) {
+                        return fetchAll(ids).toFuture();
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, products.synchronous(), "product-client");
+    }
+
+    public CompletableFuture<ProductInfo> getProductAsync(Long id) {
+        return products.get(id);
+    }
+
+    /**
+     * Blocks the caller until the shared lookup completes; the HTTP call itself does not
+     * hold a thread.
+     */
+    public Optional<ProductInfo> findProduct(Long id) {
+        return Optional.ofNullable(await(id, getProductAsync(id)));
+    }
+
+    /**
+     * Looks up several products, sharing in-flight and cached results and fetching the
+     * rest through the bulk lookup endpoint. Products that do not exist are left out of
+     * the result; an unreachable product-service fails the whole call.
+     */
+    public Map<Long, ProductInfo> findProducts(Collection<Long> ids) {
+        try {
+            return products.getAll(new LinkedHashSet<>(ids)).join();
+        } catch (CompletionException e) {
+            throw new ProductServiceUnavailableException("Product service call failed", e.getCause());
+        }
+    }
+
+    /**
+     * Sends a batch of stock adjustments and waits for the per-item outcomes, keyed by
+     * adjustment key. Any transport failure fails the whole batch, which is safe to resend.
+     */
+    public Map<String, StockAdjustmentResult> adjustStock(List<StockAdjustment> adjustments) {
+        try {
+            StockAdjustmentResponse response = webClient.post()
+                    .uri("/api/products/stock/adjustments")
+                    .bodyValue(Map.of("adjustments", adjustments))
+                    .retrieve()
+                    .bodyToMono(StockAdjustmentResponse.class)
+                    .toFuture()
+                    .join();
+            Map<String, StockAdjustmentResult> results = new HashMap<>();
+            response.getResults().forEach(result -> results.put(result.getKey(), result));
+            return results;
+        } catch (CompletionException e) {
+            throw new ProductServiceUnavailableException("Product service call failed", e.getCause());
+        }
+    }
+
+    private Mono<ProductInfo> fetch(Long id) {
+        log.debug("Fetching product {} from product-service", id);
+        return webClient.get()
+                .uri("/api/products/{id}", id)
+                .retrieve()
+                .bodyToMono(ProductInfo.class)
+                .onErrorResume(WebClientResponseException.class,
+                        e -> e.getStatusCode() == HttpStatus.NOT_FOUND ? Mono.empty() : Mono.error(e));
+    }
+
+    private Mono<Map<Long, ProductInfo>> fetchAll(Set<? extends Long> ids) {
+        List<Long> pending = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += LOOKUP_CHUNK_SIZE) {
+            chunks.add(pending.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, pending.size())));
+        }
+        log.debug("Fetching {} products from product-service in {} lookups", pending.size(), chunks.size());
+        return Flux.fromIterable(chunks)
+                .flatMap(chunk -> webClient.post()
+                        .uri("/api/products/lookup")
+                        .bodyValue(Map.of("ids", chunk))
+                        .retrieve()
+                        .bodyToMono(LookupResponse.class), LOOKUP_CONCURRENCY)
+                .flatMapIterable(LookupResponse::getProducts)
+                .collectMap(ProductInfo::getId);
+    }
+
+    private ProductInfo await(Long id, CompletableFuture<ProductInfo> future) {
+        try {
+            ProductInfo product = future.join();
+            if (product == null) {
+                // Caffeine drops empty results asynchronously; do it now so the next caller re-checks
+                products.asMap().remove(id, future);
+            }
+            return product;
+        } catch (CompletionException e) {
+            throw new ProductServiceUnavailableException("Product service call failed", e.getCause());
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    static class StockAdjustmentResponse {
+
+        private List<StockAdjustmentResult> results = List.of();
+    }
+
+    @Data
+    @NoArgsConstructor
+    static class LookupResponse {
+
+        private List<ProductInfo> products = List.of();
+
+        private List<Long> missingIds = List.of();
+    }
+}
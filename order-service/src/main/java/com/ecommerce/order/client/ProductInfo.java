@@ -0,0 +1,27 @@
+package com.ecommerce.order.client;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * The subset of a product-service product that order pricing and validation rely on.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductInfo {
+
+    private Long id;
+
+    private String name;
+
+    private BigDecimal price;
+
+    private Integer stock;
+
+    private String category;
+
+    private Boolean active;
+}
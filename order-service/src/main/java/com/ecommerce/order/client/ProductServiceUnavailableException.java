@@ -0,0 +1,12 @@
+package com.ecommerce.order.client;
+
+/**
+ * Raised when product-service cannot be reached in time, as opposed to answering
+ * that a product does not exist.
+ */
+public class ProductServiceUnavailableException extends RuntimeException {
+
+    public ProductServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.order.client;
+
+import lombok.*;
+
+/**
+ * One signed stock change sent to product-service, applied there at most once per key.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAdjustment {
+
+    private String key;
+
+    private Long productId;
+
+    private Integer quantity;
+}
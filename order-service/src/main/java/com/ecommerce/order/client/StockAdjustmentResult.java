@@ -0,0 +1,30 @@
+package com.ecommerce.order.client;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAdjustmentResult {
+
+    private String key;
+
+    private Status status;
+
+    private String message;
+
+    public enum Status {
+        APPLIED,
+        DUPLICATE,
+        REJECTED
+    }
+
+    /**
+     * Whether product-service now reflects this adjustment, either from this delivery or
+     * an earlier one.
+     */
+    public boolean isDelivered() {
+        return status == Status.APPLIED || status == Status.DUPLICATE;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.order.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class ProductClientConfig {
+
+    @Bean
+    public WebClient productWebClient(
+            WebClient.Builder builder,
+            @Value("${product.service.url:http://product-service:8081}") String baseUrl,
+            @Value("${product.service.max-connections:100}") int maxConnections,
+            @Value("${product.service.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${product.service.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${product.service.response-timeout:3s}") Duration responseTimeout) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("product-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .evictInBackground(Duration.ofSeconds(60))
+                // Exposes active/pending connections and acquire time, to spot pool starvation
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+        return builder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
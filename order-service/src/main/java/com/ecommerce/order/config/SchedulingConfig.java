@@ -0,0 +1,13 @@
+package com.ecommerce.order.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the background jobs: the outbox relay, when {@code outbox.relay.enabled}, and the
+ * cleanup of idempotency keys, delivered outbox events and expired stats buckets, always.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
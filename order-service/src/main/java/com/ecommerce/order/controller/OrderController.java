@@ -1,13 +1,33 @@
 package com.ecommerce.order.controller;
 
+import com.ecommerce.order.client.ProductServiceUnavailableException;
+import com.ecommerce.order.dto.BatchOrderResult;
+import com.ecommerce.order.dto.BulkStatusUpdateRequest;
+import com.ecommerce.order.dto.BulkStatusUpdateResponse;
+import com.ecommerce.order.dto.CheckoutRequest;
+import com.ecommerce.order.dto.OrderStats;
+import com.ecommerce.order.dto.OrderSummary;
 import com.ecommerce.order.model.Order;
+import com.ecommerce.order.service.IdempotencyKeyInProgressException;
+import com.ecommerce.order.service.IdempotencyKeyMismatchException;
+import com.ecommerce.order.service.InvalidStatusTransitionException;
+import com.ecommerce.order.service.OrderIdempotency;
+import com.ecommerce.order.service.OrderRollups;
 import com.ecommerce.order.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.*;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @Slf4j
@@ -17,22 +37,81 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class OrderController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final OrderService orderService;
+    private final OrderRollups orderRollups;
+    private final OrderIdempotency orderIdempotency;
+    private final ObjectMapper objectMapper;
 
+    // Lists return OrderSummary rows; full orders are available by id and from /stream
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders(
+    public ResponseEntity<List<OrderSummary>> getAllOrders(
             @RequestParam(required = false) String customerEmail,
-            @RequestParam(required = false) Order.OrderStatus status) {
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit) {
 
         if (customerEmail != null) {
-            return ResponseEntity.ok(orderService.getOrdersByCustomer(customerEmail));
+            // The cursor of a customer list is the offset of its next page
+            List<OrderSummary> page = orderService.getOrdersByCustomer(customerEmail, offset, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (!page.isEmpty() && page.size() == orderService.customerPageSize(limit)) {
+                int next = (offset == null ? 0 : Math.max(0, offset)) + page.size();
+                response.header(NEXT_CURSOR_HEADER, String.valueOf(next));
+            }
+            return response.body(page);
         }
         if (status != null) {
             return ResponseEntity.ok(orderService.getOrdersByStatus(status));
         }
+        if (productId != null) {
+            return ResponseEntity.ok(orderService.getOrdersByProduct(productId));
+        }
+        if (after != null || limit != null) {
+            List<OrderSummary> page = orderService.getOrdersPage(after, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (!page.isEmpty() && page.size() == OrderService.pageSize(limit)) {
+                response.header(NEXT_CURSOR_HEADER, String.valueOf(page.get(page.size() - 1).getId()));
+            }
+            return response.body(page);
+        }
         return ResponseEntity.ok(orderService.getAllOrders());
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrders() {
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            orderService.streamOrders(order -> writeLine(out, order));
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Served from in-memory rollups; byHour and byDay cover the last `hours` hours and `days` days
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStats> getStats(
+            @RequestParam(required = false) Integer hours,
+            @RequestParam(required = false) Integer days) {
+        return ResponseEntity.ok(orderRollups.getStats(hours, days));
+    }
+
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<OrderStats> rebuildStats() {
+        try {
+            orderRollups.rebuild();
+            return ResponseEntity.ok(orderRollups.getStats(null, null));
+        } catch (IllegalStateException e) {
+            log.warn("Order stats rebuild rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
         return orderService.getOrderById(id)
@@ -41,9 +120,49 @@ public class OrderController {
     }
 
     @PostMapping
-    public ResponseEntity<Order> createOrder(@Valid @RequestBody Order order) {
-        Order created = orderService.createOrder(order);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    public ResponseEntity<Order> createOrder(
+            @Validated(Order.SingleProduct.class) @RequestBody Order order,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        try {
+            if (idempotencyKey == null) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrder(order));
+            }
+            OrderIdempotency.Result result = orderIdempotency.createOrder(idempotencyKey, order);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                    .body(result.order());
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        } catch (IdempotencyKeyInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (ProductServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // One order with a line per product; the response carries the priced lines
+    @PostMapping("/checkout")
+    public ResponseEntity<Order> checkout(@Valid @RequestBody CheckoutRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(orderService.checkout(request));
+        } catch (ProductServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchOrderResult>> createOrders(@RequestBody List<Order> orders) {
+        try {
+            return ResponseEntity.ok(orderService.createOrders(orders));
+        } catch (ProductServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PatchMapping("/{id}/status")
@@ -52,15 +171,30 @@ public class OrderController {
             @RequestParam Order.OrderStatus status) {
         try {
             return ResponseEntity.ok(orderService.updateOrderStatus(id, status));
+        } catch (InvalidStatusTransitionException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PatchMapping("/status")
+    public ResponseEntity<BulkStatusUpdateResponse> updateStatuses(@Valid @RequestBody BulkStatusUpdateRequest request) {
+        try {
+            return ResponseEntity.ok(orderService.updateOrderStatuses(request.getIds(), request.getStatus()));
+        } catch (InvalidStatusTransitionException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/{id}/cancel")
     public ResponseEntity<Order> cancelOrder(@PathVariable Long id) {
         try {
             return ResponseEntity.ok(orderService.cancelOrder(id));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -70,4 +204,13 @@ public class OrderController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Order Service is UP");
     }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package com.ecommerce.order.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Outcome of one item of a {@code POST /api/orders/batch} request, reported by its
+ * position in the submitted list.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchOrderResult {
+
+    private int index;
+
+    private Status status;
+
+    private Long orderId;
+
+    private List<String> errors;
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    public static BatchOrderResult created(int index, Long orderId) {
+        return BatchOrderResult.builder()
+                .index(index)
+                .status(Status.CREATED)
+                .orderId(orderId)
+                .errors(List.of())
+                .build();
+    }
+
+    public static BatchOrderResult rejected(int index, List<String> errors) {
+        return BatchOrderResult.builder()
+                .index(index)
+                .status(Status.REJECTED)
+                .errors(errors)
+                .build();
+    }
+}
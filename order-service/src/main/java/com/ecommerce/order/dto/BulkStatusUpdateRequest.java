@@ -0,0 +1,22 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.model.Order;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequest {
+
+    @NotEmpty(message = "At least one order id is required")
+    @Size(max = 10000, message = "At most 10000 orders can be updated at once")
+    private List<Long> ids;
+
+    @NotNull(message = "Target status is required")
+    private Order.OrderStatus status;
+}
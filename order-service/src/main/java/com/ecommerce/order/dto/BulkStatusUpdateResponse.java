@@ -0,0 +1,32 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.model.Order;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Result of a bulk status update. Every requested order that is not listed in
+ * {@code rejected} is in the target status afterwards, including orders that already were.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateResponse {
+
+    private int updated;
+
+    private List<Rejection> rejected;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rejection {
+
+        private Long id;
+
+        private Order.OrderStatus currentStatus;
+
+        private String reason;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.order.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * A cart placed as one order by {@code POST /api/orders/checkout}. Repeated products are
+ * merged into one line.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckoutRequest {
+
+    @NotBlank(message = "Customer email is required")
+    @Email(message = "Valid email is required")
+    private String customerEmail;
+
+    @NotBlank(message = "Customer name is required")
+    private String customerName;
+
+    private String shippingAddress;
+
+    private String notes;
+
+    @NotEmpty(message = "At least one line is required")
+    @Size(max = 100, message = "At most 100 lines can be checked out at once")
+    private List<@Valid @NotNull Line> lines;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+
+        @NotNull(message = "Product ID is required")
+        private Long productId;
+
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be at least 1")
+        private Integer quantity;
+    }
+}
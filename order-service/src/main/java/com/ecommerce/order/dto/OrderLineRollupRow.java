@@ -0,0 +1,25 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.model.Order;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Lines of one range of multi-line orders grouped by order status and product. Rebuilding
+ * the stats rollups adds these to the per-product counters only; the order itself is
+ * counted once through its {@link OrderRollupRow}.
+ */
+@Value
+public class OrderLineRollupRow {
+
+    Order.OrderStatus status;
+
+    Long productId;
+
+    Long orders;
+
+    Long units;
+
+    BigDecimal amount;
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.model.Order;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Orders of one range of the {@code orders} table grouped by status, product and hour of
+ * creation. Rebuilding the stats rollups merges these rows instead of loading orders.
+ */
+@Value
+public class OrderRollupRow {
+
+    Order.OrderStatus status;
+
+    Long productId;
+
+    LocalDate day;
+
+    Integer hour;
+
+    Long orders;
+
+    Long units;
+
+    BigDecimal amount;
+}
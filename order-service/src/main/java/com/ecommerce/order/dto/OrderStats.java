@@ -0,0 +1,45 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.model.Order;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Response of {@code GET /api/orders/stats}. {@code byStatus} covers every order;
+ * {@code total}, {@code byProduct} and the time series only count booked orders, i.e.
+ * orders that are neither cancelled nor refunded, bucketed by creation time.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStats {
+
+    private Bucket total;
+
+    private Map<Order.OrderStatus, Bucket> byStatus;
+
+    private Map<Long, Bucket> byProduct;
+
+    private Map<LocalDateTime, Bucket> byHour;
+
+    private Map<LocalDate, Bucket> byDay;
+
+    private LocalDateTime rebuiltAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+
+        private long orders;
+
+        private long units;
+
+        private BigDecimal amount;
+    }
+}
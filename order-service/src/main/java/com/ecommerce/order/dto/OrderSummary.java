@@ -0,0 +1,31 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.model.Order;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row of an order list view. Queried as a constructor projection, so it skips
+ * the free-text columns and is never tracked by the persistence context.
+ */
+@Value
+public class OrderSummary {
+
+    Long id;
+
+    Long productId;
+
+    Integer quantity;
+
+    BigDecimal totalAmount;
+
+    Order.OrderStatus status;
+
+    String customerEmail;
+
+    String customerName;
+
+    LocalDateTime createdAt;
+}
@@ -1,34 +1,50 @@
 package com.ecommerce.order.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import jakarta.validation.groups.Default;
 import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Each list filter is followed by a newest-first sort, so created_at is the second column
+        @Index(name = "idx_orders_customer_email_created_at", columnList = "customer_email, created_at"),
+        @Index(name = "idx_orders_status_created_at", columnList = "status, created_at"),
+        @Index(name = "idx_orders_product_id_created_at", columnList = "product_id, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Order {
 
+    // Pooled sequence ids let Hibernate batch inserts; IDENTITY forces one round-trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
-    @NotNull(message = "Product ID is required")
+    // Null for multi-line orders, whose products are in order_lines
+    @NotNull(message = "Product ID is required", groups = SingleProduct.class)
     private Long productId;
 
+    // Total units across all lines for multi-line orders
     @Column(nullable = false)
     @NotNull(message = "Quantity is required")
     @Min(value = 1, message = "Quantity must be at least 1")
     private Integer quantity;
 
+    // Priced server-side from product-service; any client-supplied value is overwritten
     @Column(nullable = false)
-    @NotNull(message = "Total amount is required")
     private BigDecimal totalAmount;
 
     @Enumerated(EnumType.STRING)
@@ -52,11 +68,28 @@ public class Order {
 
     private LocalDateTime updatedAt;
 
+    // Checked on every entity update; bulk status updates increment it as well
+    @Version
+    private Long version;
+
+    // Set by OrderService for multi-line orders; list views leave it out
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private List<OrderLine> lines;
+
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Constraints that only hold for orders placed through {@code POST /api/orders}. Entity
+     * validation on persist checks {@link Default} alone, so multi-line orders pass it.
+     */
+    public interface SingleProduct extends Default {
+    }
+
     public enum OrderStatus {
         PENDING,
         CONFIRMED,
@@ -64,6 +97,35 @@ public class Order {
         SHIPPED,
         DELIVERED,
         CANCELLED,
-        REFUNDED
+        REFUNDED;
+
+        private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+        static {
+            TRANSITIONS.put(PENDING, EnumSet.of(CONFIRMED, CANCELLED));
+            TRANSITIONS.put(CONFIRMED, EnumSet.of(PROCESSING, CANCELLED));
+            TRANSITIONS.put(PROCESSING, EnumSet.of(SHIPPED, CANCELLED));
+            TRANSITIONS.put(SHIPPED, EnumSet.of(DELIVERED));
+            TRANSITIONS.put(DELIVERED, EnumSet.of(REFUNDED));
+            TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+            TRANSITIONS.put(REFUNDED, EnumSet.noneOf(OrderStatus.class));
+        }
+
+        public boolean canTransitionTo(OrderStatus target) {
+            return TRANSITIONS.get(this).contains(target);
+        }
+
+        /**
+         * The statuses an order may be in to move to {@code target}.
+         */
+        public static Set<OrderStatus> sourcesOf(OrderStatus target) {
+            Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+            TRANSITIONS.forEach((source, targets) -> {
+                if (targets.contains(target)) {
+                    sources.add(source);
+                }
+            });
+            return sources;
+        }
     }
 }
@@ -0,0 +1,129 @@
+package com.ecommerce.order.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stock change owed to product-service, written in the same transaction as the order
+ * change that caused it and delivered later by the outbox relay.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_status_id", columnList = "status, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    public static final int MAX_ERROR_LENGTH = 255;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    // Sent to product-service with every delivery attempt so redeliveries are applied once
+    @Column(nullable = false, unique = true, length = 100)
+    private String dedupKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EventType eventType;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    // Signed stock change: negative reserves stock, positive releases it
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(length = MAX_ERROR_LENGTH)
+    private String lastError;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime processedAt;
+
+    public enum EventType {
+        ORDER_CREATED,
+        ORDER_CANCELLED
+    }
+
+    public enum Status {
+        PENDING,
+        SENT,
+        FAILED
+    }
+
+    public static OutboxEvent stockReserved(Order order) {
+        return of(order, EventType.ORDER_CREATED, -order.getQuantity());
+    }
+
+    /**
+     * Reservations for every product of the order: one per line for multi-line orders.
+     * They are written together, so the relay delivers them in the same batch.
+     */
+    public static List<OutboxEvent> stockReservations(Order order) {
+        if (order.getLines() == null) {
+            return List.of(stockReserved(order));
+        }
+        return order.getLines().stream()
+                .map(line -> of(order, line, EventType.ORDER_CREATED, -line.getQuantity()))
+                .toList();
+    }
+
+    /**
+     * Gives back the stock taken by {@code reservation}, which product-service has applied.
+     */
+    public static OutboxEvent stockReleased(OutboxEvent reservation) {
+        String key = reservation.getDedupKey();
+        return OutboxEvent.builder()
+                .dedupKey(key.substring(0, key.length() - suffix(EventType.ORDER_CREATED).length()) + suffix(EventType.ORDER_CANCELLED))
+                .eventType(EventType.ORDER_CANCELLED)
+                .orderId(reservation.getOrderId())
+                .productId(reservation.getProductId())
+                .quantity(-reservation.getQuantity())
+                .build();
+    }
+
+    private static OutboxEvent of(Order order, EventType eventType, int quantity) {
+        return OutboxEvent.builder()
+                .dedupKey("order-" + order.getId() + suffix(eventType))
+                .eventType(eventType)
+                .orderId(order.getId())
+                .productId(order.getProductId())
+                .quantity(quantity)
+                .build();
+    }
+
+    private static OutboxEvent of(Order order, OrderLine line, EventType eventType, int quantity) {
+        return OutboxEvent.builder()
+                .dedupKey("order-" + order.getId() + "-line-" + line.getLineNumber() + suffix(eventType))
+                .eventType(eventType)
+                .orderId(order.getId())
+                .productId(line.getProductId())
+                .quantity(quantity)
+                .build();
+    }
+
+    private static String suffix(EventType eventType) {
+        return "-" + eventType.name().toLowerCase();
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.dto.OrderLineRollupRow;
+import com.ecommerce.order.model.OrderLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
+
+    List<OrderLine> findByOrderIdOrderByLineNumberAsc(Long orderId);
+
+    List<OrderLine> findByOrderIdInOrderByOrderIdAscLineNumberAsc(Collection<Long> orderIds);
+
+    // Checkout merges repeated products into one line, so each line is one order of its product
+    @Query("SELECT new com.ecommerce.order.dto.OrderLineRollupRow(o.status, l.productId, COUNT(l), SUM(l.quantity), SUM(l.lineTotal)) "
+            + "FROM OrderLine l JOIN Order o ON o.id = l.orderId "
+            + "WHERE l.orderId BETWEEN :fromId AND :toId "
+            + "GROUP BY o.status, l.productId")
+    List<OrderLineRollupRow> aggregateByOrderIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
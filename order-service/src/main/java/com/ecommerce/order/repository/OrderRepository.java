@@ -1,10 +1,24 @@
 package com.ecommerce.order.repository;
 
+import com.ecommerce.order.dto.OrderRollupRow;
+import com.ecommerce.order.dto.OrderSummary;
 import com.ecommerce.order.model.Order;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -16,4 +30,72 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByProductId(Long productId);
 
     List<Order> findByCustomerEmailOrderByCreatedAtDesc(String email);
+
+    List<OrderSummary> findSummariesByCustomerEmailOrderByCreatedAtDescIdDesc(String email, Limit limit);
+
+    /**
+     * Orders of the customer after the given one in newest-first order; continues a history
+     * page past the orders held in memory.
+     */
+    @Query("SELECT new com.ecommerce.order.dto.OrderSummary(o.id, o.productId, o.quantity, o.totalAmount, o.status, "
+            + "o.customerEmail, o.customerName, o.createdAt) FROM Order o WHERE o.customerEmail = :email "
+            + "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) "
+            + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findSummariesByCustomerEmailOlderThan(@Param("email") String email,
+                                                            @Param("createdAt") LocalDateTime createdAt,
+                                                            @Param("id") Long id,
+                                                            Limit limit);
+
+    List<OrderSummary> findSummariesByStatusOrderByCreatedAtDesc(Order.OrderStatus status);
+
+    List<OrderSummary> findSummariesByProductIdOrderByCreatedAtDesc(Long productId);
+
+    @Query("SELECT new com.ecommerce.order.dto.OrderSummary(o.id, o.productId, o.quantity, o.totalAmount, o.status, "
+            + "o.customerEmail, o.customerName, o.createdAt) FROM Order o "
+            + "WHERE o.id IN (SELECT l.orderId FROM OrderLine l WHERE l.productId = :productId) "
+            + "ORDER BY o.createdAt DESC")
+    List<OrderSummary> findSummariesByLineProductIdOrderByCreatedAtDesc(@Param("productId") Long productId);
+
+    List<OrderSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    List<OrderSummary> findSummariesByOrderByIdAsc();
+
+    List<OrderSummary> findSummariesByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Order> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Order> findByIdInAndStatusIn(Collection<Long> ids, Collection<Order.OrderStatus> statuses);
+
+    /**
+     * Moves every listed order currently in one of {@code sources} to {@code target} in a
+     * single statement. The version is bumped so concurrent entity updates fail their
+     * optimistic check instead of overwriting the new status.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :target, o.updatedAt = :updatedAt, o.version = o.version + 1 "
+            + "WHERE o.id IN :ids AND o.status IN :sources")
+    int transitionStatus(@Param("ids") Collection<Long> ids,
+                         @Param("sources") Collection<Order.OrderStatus> sources,
+                         @Param("target") Order.OrderStatus target,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    List<Order> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @Query("SELECT MIN(o.id) FROM Order o")
+    Long findMinId();
+
+    @Query("SELECT MAX(o.id) FROM Order o")
+    Long findMaxId();
+
+    @Query("SELECT new com.ecommerce.order.dto.OrderRollupRow(o.status, o.productId, CAST(o.createdAt AS LocalDate), "
+            + "EXTRACT(HOUR FROM o.createdAt), COUNT(o), SUM(o.quantity), SUM(o.totalAmount)) "
+            + "FROM Order o WHERE o.id BETWEEN :fromId AND :toId "
+            + "GROUP BY o.status, o.productId, CAST(o.createdAt AS LocalDate), EXTRACT(HOUR FROM o.createdAt)")
+    List<OrderRollupRow> aggregateByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o FROM Order o ORDER BY o.id")
+    Stream<Order> streamAll();
 }
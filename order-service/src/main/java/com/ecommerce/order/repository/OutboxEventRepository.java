@@ -0,0 +1,48 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByStatusOrderByIdAsc(OutboxEvent.Status status, Limit limit);
+
+    List<OutboxEvent> findByOrderIdOrderByIdAsc(Long orderId);
+
+    List<OutboxEvent> findByOrderIdInAndEventTypeAndStatus(Collection<Long> orderIds,
+                                                           OutboxEvent.EventType eventType,
+                                                           OutboxEvent.Status status);
+
+    long countByStatus(OutboxEvent.Status status);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.processedAt = :processedAt, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids,
+                      @Param("status") OutboxEvent.Status status,
+                      @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id IN :ids")
+    int recordFailedAttempt(@Param("ids") Collection<Long> ids, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.processedAt = :processedAt, e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id = :id")
+    int markProcessed(@Param("id") Long id,
+                      @Param("status") OutboxEvent.Status status,
+                      @Param("processedAt") LocalDateTime processedAt,
+                      @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = :status AND e.processedAt < :before")
+    int deleteProcessedBefore(@Param("status") OutboxEvent.Status status, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,280 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderSummary;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.repository.OrderRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read model behind the customer order list: the newest {@code customer-history.depth}
+ * orders of each recently active customer, newest first, so a page view is served from
+ * memory without touching the orders table. {@link OrderService} records each new order
+ * and status change here and it is applied once the surrounding transaction commits.
+ * <p>
+ * A customer's history is loaded from the table on first read and dropped after
+ * {@code customer-history.idle-timeout} without reads or writes. Pages past the cached
+ * orders continue from the oldest cached one with a keyset query. Writes that bypass
+ * {@link OrderService} show up once the customer's history is evicted.
+ */
+@Component
+public class CustomerOrderHistory {
+
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final OrderRepository orderRepository;
+    private final int depth;
+    private final Cache<String, History> histories;
+
+    public CustomerOrderHistory(OrderRepository orderRepository,
+                                @Value("${customer-history.depth:50}") int depth,
+                                @Value("${customer-history.max-customers:100000}") long maxCustomers,
+                                @Value("${customer-history.idle-timeout:30m}") Duration idleTimeout,
+                                MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.depth = Math.max(1, depth);
+        this.histories = Caffeine.newBuilder()
+                .maximumSize(maxCustomers)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, histories, "customer-order-history");
+    }
+
+    /**
+     * Number of newest orders held per customer; pages within them never read the table.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Up to {@code limit} orders of the customer after skipping the newest {@code offset}.
+     */
+    public List<OrderSummary> getOrders(String email, int offset, int limit) {
+        History history = histories.get(email, this::load);
+        int cached = history.size();
+        int end = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        List<OrderSummary> page = new ArrayList<>(Math.min(limit, cached));
+        for (int i = offset; i < Math.min(end, cached); i++) {
+            page.add(history.summary(i, email));
+        }
+        if (end <= cached || history.complete) {
+            return page;
+        }
+        int skip = Math.max(0, offset - cached);
+        List<OrderSummary> rows = orderRepository.findSummariesByCustomerEmailOlderThan(email, history.createdAt(cached - 1),
+                history.ids[cached - 1], Limit.of(end - cached));
+        page.addAll(rows.subList(Math.min(skip, rows.size()), rows.size()));
+        return page;
+    }
+
+    private History load(String email) {
+        return History.of(orderRepository.findSummariesByCustomerEmailOrderByCreatedAtDescIdDesc(email, Limit.of(depth + 1)), depth);
+    }
+
+    public void recordCreated(Order order) {
+        record(new Change(order.getCustomerEmail(), order.getId(), order.getStatus(), new OrderSummary(order.getId(),
+                order.getProductId(), order.getQuantity(), order.getTotalAmount(), order.getStatus(),
+                order.getCustomerEmail(), order.getCustomerName(), order.getCreatedAt())));
+    }
+
+    public void recordStatus(Order order, Order.OrderStatus status) {
+        record(new Change(order.getCustomerEmail(), order.getId(), status, null));
+    }
+
+    /**
+     * Drops every cached history, so the next read of each customer reloads it.
+     */
+    public void evictAll() {
+        histories.invalidateAll();
+    }
+
+    private void record(Change change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.add(change);
+    }
+
+    // Only loaded histories are updated, and a load running concurrently finishes first, so
+    // changes are upserts by id that also hold when the load already saw the committed row
+    private void apply(Change change) {
+        histories.asMap().computeIfPresent(change.email(), (email, history) -> change.created() != null
+                ? history.with(change.created(), depth)
+                : history.withStatus(change.id(), change.status()));
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final List<Change> changes = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            changes.forEach(CustomerOrderHistory.this::apply);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CustomerOrderHistory.this);
+        }
+    }
+
+    /**
+     * A new order of a customer ({@code created} set) or a status change of one.
+     */
+    private record Change(String email, Long id, Order.OrderStatus status, OrderSummary created) {
+    }
+
+    /**
+     * Newest-first orders of one customer in parallel primitive arrays, about 45 bytes an
+     * order instead of a few hundred for the equivalent {@link OrderSummary} objects. Never
+     * modified once built; writes copy it. {@code complete} is set while it holds every
+     * order of the customer.
+     */
+    private static final class History {
+
+        private final boolean complete;
+        private final long[] ids;
+        private final long[] productIds;
+        private final int[] quantities;
+        private final long[] cents;
+        private final byte[] statuses;
+        private final long[] createdAtMicros;
+        private final String[] names;
+
+        private History(int size, boolean complete) {
+            this.complete = complete;
+            this.ids = new long[size];
+            this.productIds = new long[size];
+            this.quantities = new int[size];
+            this.cents = new long[size];
+            this.statuses = new byte[size];
+            this.createdAtMicros = new long[size];
+            this.names = new String[size];
+        }
+
+        static History of(List<OrderSummary> rows, int depth) {
+            History history = new History(Math.min(rows.size(), depth), rows.size() <= depth);
+            for (int i = 0; i < history.size(); i++) {
+                history.set(i, rows.get(i));
+            }
+            return history;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        OrderSummary summary(int i, String email) {
+            return new OrderSummary(ids[i], productIds[i] == NONE ? null : productIds[i], quantities[i],
+                    BigDecimal.valueOf(cents[i], 2), STATUSES[statuses[i]], email, names[i], createdAt(i));
+        }
+
+        LocalDateTime createdAt(int i) {
+            long micros = createdAtMicros[i];
+            return micros == NONE ? null : LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                    (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+        }
+
+        /**
+         * Adds or replaces {@code summary}, keeping at most {@code depth} orders. An order
+         * older than every cached one is left to the table unless the history is complete.
+         */
+        History with(OrderSummary summary, int depth) {
+            for (int i = 0; i < size(); i++) {
+                if (ids[i] == summary.getId()) {
+                    History copy = copy(size(), complete);
+                    copy.set(i, summary);
+                    return copy;
+                }
+            }
+            long micros = micros(summary.getCreatedAt());
+            int position = 0;
+            while (position < size() && (createdAtMicros[position] > micros
+                    || createdAtMicros[position] == micros && ids[position] > summary.getId())) {
+                position++;
+            }
+            if (position == size() && !complete) {
+                return this;
+            }
+            int size = Math.min(size() + 1, depth);
+            History copy = new History(size, complete && size() < depth);
+            copy.copyFrom(this, 0, 0, position);
+            copy.copyFrom(this, position, position + 1, Math.min(size(), size - 1) - position);
+            if (position < size) {
+                copy.set(position, summary);
+            }
+            return copy;
+        }
+
+        History withStatus(long id, Order.OrderStatus status) {
+            for (int i = 0; i < size(); i++) {
+                if (ids[i] == id) {
+                    History copy = copy(size(), complete);
+                    copy.statuses[i] = (byte) status.ordinal();
+                    return copy;
+                }
+            }
+            return this;
+        }
+
+        private History copy(int size, boolean complete) {
+            History copy = new History(size, complete);
+            copy.copyFrom(this, 0, 0, Math.min(size, size()));
+            return copy;
+        }
+
+        private void copyFrom(History from, int fromIndex, int toIndex, int length) {
+            if (length <= 0) {
+                return;
+            }
+            System.arraycopy(from.ids, fromIndex, ids, toIndex, length);
+            System.arraycopy(from.productIds, fromIndex, productIds, toIndex, length);
+            System.arraycopy(from.quantities, fromIndex, quantities, toIndex, length);
+            System.arraycopy(from.cents, fromIndex, cents, toIndex, length);
+            System.arraycopy(from.statuses, fromIndex, statuses, toIndex, length);
+            System.arraycopy(from.createdAtMicros, fromIndex, createdAtMicros, toIndex, length);
+            System.arraycopy(from.names, fromIndex, names, toIndex, length);
+        }
+
+        private void set(int i, OrderSummary summary) {
+            ids[i] = summary.getId();
+            productIds[i] = summary.getProductId() == null ? NONE : summary.getProductId();
+            quantities[i] = summary.getQuantity();
+            cents[i] = summary.getTotalAmount().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            statuses[i] = (byte) summary.getStatus().ordinal();
+            createdAtMicros[i] = micros(summary.getCreatedAt());
+            // Share the name with the newer neighbour where it matches, as most customers keep theirs
+            names[i] = i > 0 && summary.getCustomerName() != null && summary.getCustomerName().equals(names[i - 1])
+                    ? names[i - 1] : summary.getCustomerName();
+        }
+
+        private static long micros(LocalDateTime time) {
+            return time == null ? NONE : time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+        }
+    }
+}
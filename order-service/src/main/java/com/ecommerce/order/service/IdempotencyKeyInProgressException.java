@@ -0,0 +1,12 @@
+package com.ecommerce.order.service;
+
+/**
+ * Raised when a request with the same {@code Idempotency-Key} is still being processed
+ * after the configured wait.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String key) {
+        super("A request with Idempotency-Key " + key + " is still in progress");
+    }
+}
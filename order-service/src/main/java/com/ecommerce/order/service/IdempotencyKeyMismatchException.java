@@ -0,0 +1,11 @@
+package com.ecommerce.order.service;
+
+/**
+ * Raised when an {@code Idempotency-Key} is sent again with a different order.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String key) {
+        super("Idempotency-Key " + key + " was already used for a different order");
+    }
+}
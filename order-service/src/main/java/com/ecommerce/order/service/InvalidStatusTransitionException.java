@@ -0,0 +1,13 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.model.Order;
+
+/**
+ * Raised when an order is asked to move to a status its current status does not allow.
+ */
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    public InvalidStatusTransitionException(Order.OrderStatus from, Order.OrderStatus to) {
+        super("Invalid status transition from " + from + " to " + to);
+    }
+}
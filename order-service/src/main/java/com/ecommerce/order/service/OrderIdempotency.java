@@ -0,0 +1,187 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.model.IdempotencyRecord;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.repository.IdempotencyRecordRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Creates at most one order per {@code Idempotency-Key}. Recent keys are tracked in a
+ * size-bounded, expiring in-memory map holding the in-flight or finished request, so a
+ * duplicate of a request that is still running waits for it instead of creating another
+ * order. Keys are also stored with their order, which covers restarts, evicted entries and
+ * other instances.
+ */
+@Slf4j
+@Component
+public class OrderIdempotency {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncCache<String, Outcome> requests;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+
+    public OrderIdempotency(OrderService orderService,
+                            OrderRepository orderRepository,
+                            IdempotencyRecordRepository idempotencyRecordRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${idempotency.ttl:24h}") Duration ttl,
+                            @Value("${idempotency.max-entries:100000}") long maxEntries,
+                            @Value("${idempotency.wait-timeout:10s}") Duration waitTimeout,
+                            MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        // Failed requests are dropped by Caffeine as soon as their future completes exceptionally
+        this.requests = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, requests.synchronous(), "order-idempotency");
+    }
+
+    /**
+     * The order a key resolved to, and the hash of the request that created it.
+     */
+    private record Outcome(Long orderId, String requestHash) {
+    }
+
+    /**
+     * @param replayed {@code true} if the order was created by an earlier request with the same key
+     */
+    public record Result(Order order, boolean replayed) {
+    }
+
+    /**
+     * Creates the order unless {@code key} was seen before, in which case the order created
+     * for it is returned. A failed request does not consume the key, so it can be retried.
+     *
+     * @throws IdempotencyKeyMismatchException if the key was used for a different order
+     * @throws IdempotencyKeyInProgressException if the first request is still running after the wait timeout
+     */
+    public Result createOrder(String key, Order order) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = requestHash(order);
+        CompletableFuture<Outcome> pending = new CompletableFuture<>();
+        CompletableFuture<Outcome> inFlight = requests.asMap().putIfAbsent(key, pending);
+        if (inFlight != null) {
+            log.info("Waiting for in-flight request with Idempotency-Key: {}", key);
+            return replay(key, await(key, inFlight), requestHash);
+        }
+
+        try {
+            Outcome outcome = findRecorded(key).orElse(null);
+            if (outcome == null) {
+                try {
+                    IdempotencyRecord record = IdempotencyRecord.builder()
+                            .idempotencyKey(key)
+                            .requestHash(requestHash)
+                            .build();
+                    Order created = orderService.createOrder(order, record);
+                    pending.complete(new Outcome(created.getId(), requestHash));
+                    return new Result(created, false);
+                } catch (DataIntegrityViolationException e) {
+                    // Another instance committed the same key first
+                    outcome = findRecorded(key).orElseThrow(() -> e);
+                }
+            }
+            pending.complete(outcome);
+            return replay(key, outcome, requestHash);
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Outcome await(String key, CompletableFuture<Outcome> inFlight) {
+        try {
+            return inFlight.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (ExecutionException e) {
+            // The first request failed; its duplicates fail the same way
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private Result replay(String key, Outcome outcome, String requestHash) {
+        if (!outcome.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(key);
+        }
+        Order order = orderRepository.findById(outcome.orderId())
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + outcome.orderId()));
+        return new Result(order, true);
+    }
+
+    private Optional<Outcome> findRecorded(String key) {
+        return idempotencyRecordRepository.findById(key)
+                .map(record -> new Outcome(record.getOrderId(), record.getRequestHash()));
+    }
+
+    /**
+     * Hash of the fields a client sends; the total is priced server-side and left out.
+     */
+    public static String requestHash(Order order) {
+        String fields = String.join("\u0000",
+                String.valueOf(order.getProductId()),
+                String.valueOf(order.getQuantity()),
+                String.valueOf(order.getCustomerEmail()),
+                String.valueOf(order.getCustomerName()),
+                String.valueOf(order.getShippingAddress()),
+                String.valueOf(order.getNotes()));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fields.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:3600000}")
+    public void deleteExpiredKeys() {
+        int deleted = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl)));
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+}
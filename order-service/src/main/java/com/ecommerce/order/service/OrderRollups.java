@@ -0,0 +1,469 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderLineRollupRow;
+import com.ecommerce.order.dto.OrderRollupRow;
+import com.ecommerce.order.dto.OrderStats;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderLine;
+import com.ecommerce.order.repository.OrderLineRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Order counts, units and amounts per status, product, hour and day, kept in memory so
+ * {@code GET /api/orders/stats} never reads the orders table. {@link OrderService} records
+ * each change here and it is applied once the surrounding transaction commits.
+ * <p>
+ * {@link #rebuild()} recomputes everything from the table in parallel id-range chunks, read
+ * from snapshots taken together. Committing writers hold a shared lock which the rebuild
+ * takes exclusively only to take the snapshots and to swap in the result; changes committed
+ * in between are not in the snapshots, so they are kept and applied to the rebuilt rollups
+ * before the swap. Writes that bypass {@link OrderService} show up after the next rebuild.
+ * <p>
+ * A multi-line order counts once in every view except by product, where each of its lines
+ * counts as an order of that product.
+ */
+@Slf4j
+@Component
+public class OrderRollups {
+
+    private static final Set<Order.OrderStatus> UNBOOKED = EnumSet.of(Order.OrderStatus.CANCELLED, Order.OrderStatus.REFUNDED);
+    private static final int MAX_HOURS = 24 * 7;
+    private static final int MAX_DAYS = 366;
+
+    private final OrderRepository orderRepository;
+    private final OrderLineRepository orderLineRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean rebuildOnStartup;
+    private final int chunkSize;
+    private final int parallelism;
+
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Rollups rollups = new Rollups(null);
+    // Changes committed since the rebuild's snapshots, while one is running; guarded by rebuildLock
+    private Queue<Change> missedByRebuild;
+
+    public OrderRollups(OrderRepository orderRepository,
+                        OrderLineRepository orderLineRepository,
+                        EntityManager entityManager,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${stats.rebuild.on-startup:true}") boolean rebuildOnStartup,
+                        @Value("${stats.rebuild.chunk-size:10000}") int chunkSize,
+                        @Value("${stats.rebuild.parallelism:4}") int parallelism) {
+        this.orderRepository = orderRepository;
+        this.orderLineRepository = orderLineRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Snapshot isolation: each worker reads the table as of its first query
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    public void recordCreated(Order order) {
+        record(Change.of(order, order.getStatus(), 1));
+    }
+
+    /**
+     * Multi-line orders must have their lines set, or their products keep the old status.
+     */
+    public void recordTransition(Order order, Order.OrderStatus from, Order.OrderStatus to) {
+        List<Change> changes = new ArrayList<>(Change.of(order, from, -1));
+        changes.addAll(Change.of(order, to, 1));
+        record(changes);
+    }
+
+    private void record(List<Change> changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuildLock.readLock().lock();
+            try {
+                apply(changes);
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.addAll(changes);
+    }
+
+    /**
+     * Must be called holding {@code rebuildLock}'s read lock.
+     */
+    private void apply(List<Change> changes) {
+        Rollups current = rollups;
+        changes.forEach(current::apply);
+        Queue<Change> missed = missedByRebuild;
+        if (missed != null) {
+            missed.addAll(changes);
+        }
+    }
+
+    public OrderStats getStats(Integer hours, Integer days) {
+        Rollups current = rollups;
+        LocalDateTime thisHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        return OrderStats.builder()
+                .total(current.total.snapshot())
+                .byStatus(snapshot(current.byStatus))
+                .byProduct(snapshot(current.byProduct))
+                .byHour(snapshot(current.byHour.tailMap(thisHour.minusHours(clamp(hours, 24, MAX_HOURS) - 1))))
+                .byDay(snapshot(current.byDay.tailMap(thisHour.toLocalDate().minusDays(clamp(days, 30, MAX_DAYS) - 1))))
+                .rebuiltAt(current.rebuiltAt)
+                .build();
+    }
+
+    /**
+     * Drops the hour and day buckets that have slid out of the largest window
+     * {@link #getStats} serves, so they do not pile up for the life of the process.
+     */
+    @Scheduled(fixedDelayString = "${stats.eviction-interval-ms:3600000}")
+    public void evictExpiredBuckets() {
+        rollups.evictBefore(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS));
+    }
+
+    private static int clamp(Integer value, int defaultValue, int max) {
+        return value == null ? defaultValue : Math.max(1, Math.min(value, max));
+    }
+
+    private static <K> Map<K, OrderStats.Bucket> snapshot(Map<K, Counters> counters) {
+        Map<K, OrderStats.Bucket> buckets = new TreeMap<>();
+        counters.forEach((key, value) -> buckets.put(key, value.snapshot()));
+        return buckets;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            scheduledRebuild();
+        }
+    }
+
+    @Scheduled(cron = "${stats.rebuild.cron:-}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Order stats rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes the rollups from the orders table, aggregating id ranges of
+     * {@code stats.rebuild.chunk-size} on up to {@code stats.rebuild.parallelism} connections.
+     * Commits through {@link OrderService} wait only while the workers take their snapshots
+     * and while the result is swapped in, not during the scan.
+     *
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Order stats rebuild already running");
+        }
+        try {
+            long start = System.nanoTime();
+            Queue<long[]> ranges = idRanges();
+            int workers = Math.max(1, Math.min(parallelism, ranges.size()));
+            int chunks = ranges.size();
+            ExecutorService executor = Executors.newFixedThreadPool(workers);
+            CountDownLatch connected = new CountDownLatch(workers);
+            CountDownLatch scan = new CountDownLatch(1);
+            CountDownLatch snapshots = new CountDownLatch(workers);
+            List<Future<Rollups>> parts = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                parts.add(executor.submit(() -> scanRanges(ranges, connected, scan, snapshots)));
+            }
+
+            Rollups rebuilt = new Rollups(LocalDateTime.now());
+            try {
+                await(connected, parts);
+                rebuildLock.writeLock().lock();
+                try {
+                    missedByRebuild = new ConcurrentLinkedQueue<>();
+                    scan.countDown();
+                    await(snapshots, parts);
+                } finally {
+                    rebuildLock.writeLock().unlock();
+                }
+                for (Future<Rollups> part : parts) {
+                    rebuilt.merge(part.get());
+                }
+                rebuildLock.writeLock().lock();
+                try {
+                    missedByRebuild.forEach(rebuilt::apply);
+                    // The scan covers the whole table, so most of its hours and days are out of range
+                    rebuilt.evictBefore(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS));
+                    rollups = rebuilt;
+                } finally {
+                    missedByRebuild = null;
+                    rebuildLock.writeLock().unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Order stats rebuild interrupted", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Order stats rebuild failed: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                scan.countDown();
+                executor.shutdownNow();
+                if (missedByRebuild != null) {
+                    rebuildLock.writeLock().lock();
+                    missedByRebuild = null;
+                    rebuildLock.writeLock().unlock();
+                }
+            }
+            log.info("Rebuilt order stats from {} chunks on {} connections in {} ms",
+                    chunks, workers, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Waits for {@code latch}, failing as soon as one of the workers has.
+     */
+    private static void await(CountDownLatch latch, List<Future<Rollups>> parts) throws InterruptedException, ExecutionException {
+        while (!latch.await(100, TimeUnit.MILLISECONDS)) {
+            for (Future<Rollups> part : parts) {
+                if (part.isDone()) {
+                    part.get();
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the current id span into chunks. The outer ranges are open-ended so orders
+     * committed between this lookup and the scan are still covered.
+     */
+    private Queue<long[]> idRanges() {
+        Queue<long[]> ranges = new ConcurrentLinkedQueue<>();
+        Long minId = orderRepository.findMinId();
+        Long maxId = orderRepository.findMaxId();
+        if (minId == null) {
+            ranges.add(new long[]{Long.MIN_VALUE, Long.MAX_VALUE});
+            return ranges;
+        }
+        for (long from = minId; from <= maxId; from += chunkSize) {
+            long to = from + chunkSize - 1;
+            ranges.add(new long[]{from == minId ? Long.MIN_VALUE : from, to >= maxId ? Long.MAX_VALUE : to});
+        }
+        return ranges;
+    }
+
+    private Rollups scanRanges(Queue<long[]> ranges, CountDownLatch connected, CountDownLatch scan, CountDownLatch snapshots) {
+        return readOnlyTransaction.execute(status -> {
+            // Take a connection before the lock is taken, since writers blocked on it keep theirs
+            entityManager.unwrap(Session.class).doWork(connection -> { });
+            connected.countDown();
+            try {
+                scan.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Order stats scan interrupted", e);
+            }
+            // The first query fixes the snapshot, which must be taken while no commit is in flight
+            orderRepository.findMaxId();
+            snapshots.countDown();
+            Rollups part = new Rollups(null);
+            for (long[] range = ranges.poll(); range != null; range = ranges.poll()) {
+                orderRepository.aggregateByIdBetween(range[0], range[1]).forEach(part::add);
+                orderLineRepository.aggregateByOrderIdBetween(range[0], range[1]).forEach(part::add);
+            }
+            return part;
+        });
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final List<Change> changes = new ArrayList<>();
+        private boolean locked;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            rebuildLock.readLock().lock();
+            locked = true;
+        }
+
+        @Override
+        public void afterCommit() {
+            apply(changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OrderRollups.this);
+            if (locked) {
+                rebuildLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * One order entering ({@code sign} 1) or leaving ({@code sign} -1) a status. A change
+     * with {@code productOnly} set is one line of a multi-line order and only moves the
+     * per-product counters.
+     */
+    private record Change(Order.OrderStatus status, Long productId, LocalDateTime hour,
+                          long orders, long units, long cents, boolean productOnly) {
+
+        static List<Change> of(Order order, Order.OrderStatus status, int sign) {
+            LocalDateTime hour = order.getCreatedAt() == null ? null : order.getCreatedAt().truncatedTo(ChronoUnit.HOURS);
+            Change change = new Change(status, order.getProductId(), hour,
+                    sign, (long) sign * order.getQuantity(), sign * toCents(order.getTotalAmount()), false);
+            if (order.getLines() == null) {
+                return List.of(change);
+            }
+            List<Change> changes = new ArrayList<>(order.getLines().size() + 1);
+            changes.add(change);
+            for (OrderLine line : order.getLines()) {
+                changes.add(new Change(status, line.getProductId(), hour,
+                        sign, (long) sign * line.getQuantity(), sign * toCents(line.getLineTotal()), true));
+            }
+            return changes;
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static final class Counters {
+
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder units = new LongAdder();
+        private final LongAdder cents = new LongAdder();
+
+        void add(long orders, long units, long cents) {
+            this.orders.add(orders);
+            this.units.add(units);
+            this.cents.add(cents);
+        }
+
+        void add(Counters other) {
+            add(other.orders.sum(), other.units.sum(), other.cents.sum());
+        }
+
+        OrderStats.Bucket snapshot() {
+            return new OrderStats.Bucket(orders.sum(), units.sum(), BigDecimal.valueOf(cents.sum(), 2));
+        }
+    }
+
+    private static final class Rollups {
+
+        private final LocalDateTime rebuiltAt;
+        private final Counters total = new Counters();
+        private final Map<Order.OrderStatus, Counters> byStatus = new EnumMap<>(Order.OrderStatus.class);
+        private final Map<Long, Counters> byProduct = new ConcurrentHashMap<>();
+        private final ConcurrentNavigableMap<LocalDateTime, Counters> byHour = new ConcurrentSkipListMap<>();
+        private final ConcurrentNavigableMap<LocalDate, Counters> byDay = new ConcurrentSkipListMap<>();
+
+        Rollups(LocalDateTime rebuiltAt) {
+            this.rebuiltAt = rebuiltAt;
+            // Every status is present up front, so the map is never modified after construction
+            for (Order.OrderStatus status : Order.OrderStatus.values()) {
+                byStatus.put(status, new Counters());
+            }
+        }
+
+        void apply(Change change) {
+            if (change.productOnly()) {
+                addProduct(change.status(), change.productId(), change.orders(), change.units(), change.cents());
+            } else {
+                add(change.status(), change.productId(), change.hour(), change.orders(), change.units(), change.cents());
+            }
+        }
+
+        void add(OrderRollupRow row) {
+            LocalDateTime hour = row.getDay() == null ? null : row.getDay().atTime(row.getHour(), 0);
+            add(row.getStatus(), row.getProductId(), hour, row.getOrders(), row.getUnits(), toCents(row.getAmount()));
+        }
+
+        void add(OrderLineRollupRow row) {
+            addProduct(row.getStatus(), row.getProductId(), row.getOrders(), row.getUnits(), toCents(row.getAmount()));
+        }
+
+        private void add(Order.OrderStatus status, Long productId, LocalDateTime hour, long orders, long units, long cents) {
+            byStatus.get(status).add(orders, units, cents);
+            if (UNBOOKED.contains(status)) {
+                return;
+            }
+            total.add(orders, units, cents);
+            // Multi-line orders have no product of their own; their lines are added separately
+            if (productId != null) {
+                byProduct.computeIfAbsent(productId, id -> new Counters()).add(orders, units, cents);
+            }
+            if (hour != null) {
+                byHour.computeIfAbsent(hour, h -> new Counters()).add(orders, units, cents);
+                byDay.computeIfAbsent(hour.toLocalDate(), d -> new Counters()).add(orders, units, cents);
+            }
+        }
+
+        private void addProduct(Order.OrderStatus status, Long productId, long orders, long units, long cents) {
+            if (!UNBOOKED.contains(status)) {
+                byProduct.computeIfAbsent(productId, id -> new Counters()).add(orders, units, cents);
+            }
+        }
+
+        void merge(Rollups other) {
+            total.add(other.total);
+            other.byStatus.forEach((status, counters) -> byStatus.get(status).add(counters));
+            other.byProduct.forEach((id, counters) -> byProduct.computeIfAbsent(id, k -> new Counters()).add(counters));
+            other.byHour.forEach((hour, counters) -> byHour.computeIfAbsent(hour, k -> new Counters()).add(counters));
+            other.byDay.forEach((day, counters) -> byDay.computeIfAbsent(day, k -> new Counters()).add(counters));
+        }
+
+        void evictBefore(LocalDateTime thisHour) {
+            byHour.headMap(thisHour.minusHours(MAX_HOURS - 1)).clear();
+            byDay.headMap(thisHour.toLocalDate().minusDays(MAX_DAYS - 1)).clear();
+        }
+    }
+}
@@ -1,80 +1,485 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.client.ProductInfo;
+import com.ecommerce.order.dto.BatchOrderResult;
+import com.ecommerce.order.dto.BulkStatusUpdateResponse;
+import com.ecommerce.order.dto.CheckoutRequest;
+import com.ecommerce.order.dto.OrderSummary;
+import com.ecommerce.order.model.IdempotencyRecord;
 import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderLine;
+import com.ecommerce.order.model.OutboxEvent;
+import com.ecommerce.order.repository.OrderLineRepository;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OutboxEventRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 5000;
+    private static final int STATUS_UPDATE_CHUNK_SIZE = 1000;
+
     private final OrderRepository orderRepository;
-    private final RestTemplate restTemplate;
+    private final OrderLineRepository orderLineRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ProductClient productClient;
+    private final OrderRollups orderRollups;
+    private final CustomerOrderHistory customerOrderHistory;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Validator validator;
 
-    @Value("${product.service.url:http://product-service:8081}")
-    private String productServiceUrl;
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
 
-    public List<Order> getAllOrders() {
+    public List<OrderSummary> getAllOrders() {
         log.info("Fetching all orders");
-        return orderRepository.findAll();
+        return orderRepository.findSummariesByOrderByIdAsc();
+    }
+
+    /**
+     * Keyset page of orders with ids strictly greater than {@code after}; unlike
+     * offset paging, deep pages cost the same as the first one.
+     */
+    public List<OrderSummary> getOrdersPage(Long after, Integer limit) {
+        int pageSize = pageSize(limit);
+        log.info("Fetching orders page after id: {}, limit: {}", after, pageSize);
+        return orderRepository.findSummariesByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(pageSize));
+    }
+
+    public static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Feeds every order to {@code consumer} from a scrolling cursor. Entities are detached
+     * as soon as they are consumed, so heap usage does not depend on table size.
+     */
+    @Transactional(readOnly = true)
+    public void streamOrders(Consumer<Order> consumer) {
+        log.info("Streaming all orders");
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            orders.forEach(order -> {
+                consumer.accept(order);
+                entityManager.detach(order);
+            });
+        }
     }
 
     public Optional<Order> getOrderById(Long id) {
         log.info("Fetching order with id: {}", id);
-        return orderRepository.findById(id);
+        return orderRepository.findById(id).map(this::withLines);
+    }
+
+    /**
+     * Newest-first page of the customer's orders, served from {@link CustomerOrderHistory}
+     * while it lies within the orders held in memory. Without a limit the page is exactly
+     * those orders, so the default list never reads the table.
+     */
+    public List<OrderSummary> getOrdersByCustomer(String email, Integer offset, Integer limit) {
+        int pageSize = customerPageSize(limit);
+        log.info("Fetching orders for customer: {}, offset: {}, limit: {}", email, offset, pageSize);
+        return customerOrderHistory.getOrders(email, offset == null ? 0 : Math.max(0, offset), pageSize);
     }
 
-    public List<Order> getOrdersByCustomer(String email) {
-        log.info("Fetching orders for customer: {}", email);
-        return orderRepository.findByCustomerEmailOrderByCreatedAtDesc(email);
+    public int customerPageSize(Integer limit) {
+        return limit == null ? Math.min(customerOrderHistory.getDepth(), MAX_PAGE_SIZE) : pageSize(limit);
     }
 
-    public List<Order> getOrdersByStatus(Order.OrderStatus status) {
+    public List<OrderSummary> getOrdersByStatus(Order.OrderStatus status) {
         log.info("Fetching orders with status: {}", status);
-        return orderRepository.findByStatus(status);
+        return orderRepository.findSummariesByStatusOrderByCreatedAtDesc(status);
     }
 
-    @Transactional
+    public List<OrderSummary> getOrdersByProduct(Long productId) {
+        log.info("Fetching orders for product: {}", productId);
+        List<OrderSummary> single = orderRepository.findSummariesByProductIdOrderByCreatedAtDesc(productId);
+        List<OrderSummary> multiLine = orderRepository.findSummariesByLineProductIdOrderByCreatedAtDesc(productId);
+        if (multiLine.isEmpty()) {
+            return single;
+        }
+        List<OrderSummary> merged = new ArrayList<>(single.size() + multiLine.size());
+        merged.addAll(single);
+        merged.addAll(multiLine);
+        merged.sort(Comparator.comparing(OrderSummary::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return merged;
+    }
+
+    /**
+     * Prices the order against product-service before opening a transaction, so no
+     * database connection is held while waiting on the network. The stock reservation is
+     * recorded in the outbox in the same transaction and applied asynchronously.
+     */
     public Order createOrder(Order order) {
+        return createOrder(order, null);
+    }
+
+    /**
+     * Like {@link #createOrder(Order)}, also storing {@code idempotencyRecord} for the new
+     * order in the same transaction when one is given.
+     */
+    public Order createOrder(Order order, IdempotencyRecord idempotencyRecord) {
         log.info("Creating order for customer: {}, productId: {}", order.getCustomerEmail(), order.getProductId());
+        ProductInfo product = productClient.findProduct(order.getProductId()).orElse(null);
+        String error = applyPricing(order, product);
+        if (error != null) {
+            throw new RuntimeException(error);
+        }
+        order.setId(null);
+        order.setVersion(null);
         order.setStatus(Order.OrderStatus.PENDING);
-        Order savedOrder = orderRepository.save(order);
+        Order savedOrder = transactionTemplate.execute(status -> {
+            Order saved = orderRepository.save(order);
+            outboxEventRepository.save(OutboxEvent.stockReserved(saved));
+            if (idempotencyRecord != null) {
+                idempotencyRecord.setOrderId(saved.getId());
+                entityManager.persist(idempotencyRecord);
+            }
+            orderRollups.recordCreated(saved);
+            customerOrderHistory.recordCreated(saved);
+            return saved;
+        });
         log.info("Order created with id: {}", savedOrder.getId());
         return savedOrder;
     }
 
+    /**
+     * Validates, prices and persists a burst of orders. Invalid items are reported back
+     * instead of failing the whole batch. All products are priced up front with concurrent
+     * lookups, and valid orders are then inserted in one transaction through JDBC batching,
+     * flushing and clearing the persistence context every batch.
+     */
+    public List<BatchOrderResult> createOrders(List<Order> orders) {
+        if (orders.isEmpty() || orders.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("Batch must contain between 1 and " + MAX_BATCH_SIZE + " orders");
+        }
+        log.info("Creating batch of {} orders", orders.size());
+        BatchOrderResult[] results = new BatchOrderResult[orders.size()];
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Set<ConstraintViolation<Order>> violations = validator.validate(orders.get(i), Order.SingleProduct.class);
+            if (!violations.isEmpty()) {
+                results[i] = BatchOrderResult.rejected(i, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .toList());
+            } else {
+                productIds.add(orders.get(i).getProductId());
+            }
+        }
+
+        Map<Long, ProductInfo> products = productClient.findProducts(productIds);
+        for (int i = 0; i < orders.size(); i++) {
+            if (results[i] == null) {
+                Order order = orders.get(i);
+                String error = applyPricing(order, products.get(order.getProductId()));
+                if (error != null) {
+                    results[i] = BatchOrderResult.rejected(i, List.of(error));
+                }
+            }
+        }
+
+        int created = transactionTemplate.execute(status -> {
+            int pending = 0;
+            for (int i = 0; i < orders.size(); i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+                Order order = orders.get(i);
+                order.setId(null);
+                order.setVersion(null);
+                order.setStatus(Order.OrderStatus.PENDING);
+                entityManager.persist(order);
+                entityManager.persist(OutboxEvent.stockReserved(order));
+                orderRollups.recordCreated(order);
+                customerOrderHistory.recordCreated(order);
+                results[i] = BatchOrderResult.created(i, order.getId());
+                if (++pending % jdbcBatchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return pending;
+        });
+        log.info("Batch created {} of {} orders", created, orders.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Places a cart as one order with a line per product. All products are priced with a
+     * single bulk lookup, and the order, its lines and one stock reservation per line are
+     * written in one transaction with batched inserts, so the outbox relay hands all
+     * reservations to product-service together.
+     *
+     * @throws RuntimeException listing every line that cannot be placed
+     */
+    public Order checkout(CheckoutRequest request) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        request.getLines().forEach(line -> quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum));
+        log.info("Checking out {} products for customer: {}", quantities.size(), request.getCustomerEmail());
+
+        Map<Long, ProductInfo> products = productClient.findProducts(quantities.keySet());
+        List<OrderLine> lines = new ArrayList<>(quantities.size());
+        List<String> errors = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            ProductInfo product = products.get(productId);
+            String error = rejection(productId, quantity, product);
+            if (error != null) {
+                errors.add(error);
+                return;
+            }
+            lines.add(OrderLine.builder()
+                    .lineNumber(lines.size() + 1)
+                    .productId(productId)
+                    .quantity(quantity)
+                    .unitPrice(product.getPrice())
+                    .lineTotal(product.getPrice().multiply(BigDecimal.valueOf(quantity)))
+                    .build());
+        });
+        if (!errors.isEmpty()) {
+            throw new RuntimeException(String.join("; ", errors));
+        }
+
+        Order order = Order.builder()
+                .quantity(lines.stream().mapToInt(OrderLine::getQuantity).sum())
+                .totalAmount(lines.stream().map(OrderLine::getLineTotal).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .customerEmail(request.getCustomerEmail())
+                .customerName(request.getCustomerName())
+                .shippingAddress(request.getShippingAddress())
+                .notes(request.getNotes())
+                .lines(lines)
+                .build();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(order);
+            for (OrderLine line : lines) {
+                line.setOrderId(order.getId());
+                entityManager.persist(line);
+            }
+            OutboxEvent.stockReservations(order).forEach(entityManager::persist);
+            orderRollups.recordCreated(order);
+            customerOrderHistory.recordCreated(order);
+        });
+        log.info("Order {} created with {} lines", order.getId(), lines.size());
+        return order;
+    }
+
+    /**
+     * Sets the order total from the current product price.
+     *
+     * @return a rejection reason, or {@code null} if the order can be placed
+     */
+    private String applyPricing(Order order, ProductInfo product) {
+        String error = rejection(order.getProductId(), order.getQuantity(), product);
+        if (error == null) {
+            order.setTotalAmount(product.getPrice().multiply(BigDecimal.valueOf(order.getQuantity())));
+        }
+        return error;
+    }
+
+    private static String rejection(Long productId, int quantity, ProductInfo product) {
+        if (product == null) {
+            return "Product not found with id: " + productId;
+        }
+        if (!Boolean.TRUE.equals(product.getActive())) {
+            return "Product is not available: " + productId;
+        }
+        if (product.getStock() < quantity) {
+            return "Insufficient stock for product: " + productId;
+        }
+        return null;
+    }
+
+    /**
+     * Loads the lines of a multi-line order; single-product orders are returned unchanged.
+     */
+    private Order withLines(Order order) {
+        if (order.getProductId() == null && order.getLines() == null) {
+            order.setLines(orderLineRepository.findByOrderIdOrderByLineNumberAsc(order.getId()));
+        }
+        return order;
+    }
+
+    private void withLines(List<Order> orders) {
+        List<Long> ids = orders.stream()
+                .filter(order -> order.getProductId() == null && order.getLines() == null)
+                .map(Order::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, List<OrderLine>> lines = orderLineRepository.findByOrderIdInOrderByOrderIdAscLineNumberAsc(ids).stream()
+                .collect(Collectors.groupingBy(OrderLine::getOrderId));
+        orders.forEach(order -> {
+            if (order.getProductId() == null) {
+                order.setLines(lines.getOrDefault(order.getId(), List.of()));
+            }
+        });
+    }
+
+    /**
+     * Moves one order along the status transition table. The update is version-checked,
+     * so a concurrent change to the same order fails with an optimistic locking error
+     * instead of being silently overwritten.
+     */
     @Transactional
     public Order updateOrderStatus(Long id, Order.OrderStatus newStatus) {
         log.info("Updating order {} status to {}", id, newStatus);
-        return orderRepository.findById(id)
-                .map(order -> {
-                    order.setStatus(newStatus);
-                    return orderRepository.save(order);
-                })
+        Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        if (!order.getStatus().canTransitionTo(newStatus)) {
+            throw new InvalidStatusTransitionException(order.getStatus(), newStatus);
+        }
+        Order.OrderStatus previous = order.getStatus();
+        order.setStatus(newStatus);
+        // Flush the version-checked update first so a losing writer fails before it records an event
+        Order saved = withLines(orderRepository.saveAndFlush(order));
+        if (newStatus == Order.OrderStatus.CANCELLED) {
+            outboxEventRepository.saveAll(stockReleases(List.of(id)));
+        }
+        orderRollups.recordTransition(saved, previous, newStatus);
+        customerOrderHistory.recordStatus(saved, newStatus);
+        return saved;
+    }
+
+    /**
+     * Moves many orders to {@code target} with set-based updates, in chunks of
+     * {@value #STATUS_UPDATE_CHUNK_SIZE} ids. Only orders whose current status allows the
+     * transition are changed; the rest are reported back. The affected orders are locked
+     * first, so each one gets exactly one stats change and, when cancelled, exactly one stock
+     * release event per applied reservation.
+     */
+    @Transactional
+    public BulkStatusUpdateResponse updateOrderStatuses(List<Long> ids, Order.OrderStatus target) {
+        log.info("Updating {} orders to status {}", ids.size(), target);
+        Set<Order.OrderStatus> sources = Order.OrderStatus.sourcesOf(target);
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        LocalDateTime now = LocalDateTime.now();
+
+        int updated = 0;
+        List<List<Long>> chunks = chunks(distinctIds);
+        for (List<Long> chunk : sources.isEmpty() ? List.<List<Long>>of() : chunks) {
+            List<Order> affected = orderRepository.findByIdInAndStatusIn(chunk, sources);
+            withLines(affected);
+            if (target == Order.OrderStatus.CANCELLED && !affected.isEmpty()) {
+                stockReleases(affected.stream().map(Order::getId).toList()).forEach(entityManager::persist);
+            }
+            for (Order order : affected) {
+                orderRollups.recordTransition(order, order.getStatus(), target);
+                customerOrderHistory.recordStatus(order, target);
+            }
+            updated += orderRepository.transitionStatus(chunk, sources, target, now);
+        }
+
+        Map<Long, OrderSummary> current = new HashMap<>();
+        for (List<Long> chunk : chunks) {
+            orderRepository.findSummariesByIdIn(chunk).forEach(summary -> current.put(summary.getId(), summary));
+        }
+        List<BulkStatusUpdateResponse.Rejection> rejected = new ArrayList<>();
+        for (Long id : distinctIds) {
+            OrderSummary summary = current.get(id);
+            if (summary == null) {
+                rejected.add(new BulkStatusUpdateResponse.Rejection(id, null, "Order not found with id: " + id));
+            } else if (summary.getStatus() != target) {
+                rejected.add(new BulkStatusUpdateResponse.Rejection(id, summary.getStatus(),
+                        "Invalid status transition from " + summary.getStatus() + " to " + target));
+            }
+        }
+        log.info("Updated {} of {} orders to status {}", updated, distinctIds.size(), target);
+        return new BulkStatusUpdateResponse(updated, rejected);
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += STATUS_UPDATE_CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + STATUS_UPDATE_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
     }
 
     @Transactional
     public Order cancelOrder(Long id) {
         log.info("Cancelling order: {}", id);
-        return orderRepository.findById(id)
-                .map(order -> {
-                    if (order.getStatus() == Order.OrderStatus.SHIPPED ||
-                        order.getStatus() == Order.OrderStatus.DELIVERED) {
-                        throw new RuntimeException("Cannot cancel order that is already " + order.getStatus());
-                    }
-                    order.setStatus(Order.OrderStatus.CANCELLED);
-                    return orderRepository.save(order);
-                })
+        Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+            // Repeated cancels must not release the stock twice
+            return withLines(order);
+        }
+        if (!order.getStatus().canTransitionTo(Order.OrderStatus.CANCELLED)) {
+            throw new InvalidStatusTransitionException(order.getStatus(), Order.OrderStatus.CANCELLED);
+        }
+        Order.OrderStatus previous = order.getStatus();
+        order.setStatus(Order.OrderStatus.CANCELLED);
+        Order saved = withLines(orderRepository.saveAndFlush(order));
+        outboxEventRepository.saveAll(stockReleases(List.of(id)));
+        orderRollups.recordTransition(saved, previous, Order.OrderStatus.CANCELLED);
+        customerOrderHistory.recordStatus(saved, Order.OrderStatus.CANCELLED);
+        return saved;
+    }
+
+    /**
+     * Cancels an order after product-service rejected one of its stock reservations, in
+     * the outbox relay's transaction, which holds the order's row lock. Reservations of the
+     * order that did apply are released; an order past the point of cancelling is left as is.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cancelRejectedOrder(Order order) {
+        if (!order.getStatus().canTransitionTo(Order.OrderStatus.CANCELLED)) {
+            log.warn("Stock reservation of order {} rejected, but it is already {}", order.getId(), order.getStatus());
+            return;
+        }
+        log.warn("Cancelling order {}: stock reservation rejected", order.getId());
+        Order.OrderStatus previous = order.getStatus();
+        order.setStatus(Order.OrderStatus.CANCELLED);
+        Order saved = withLines(orderRepository.saveAndFlush(order));
+        outboxEventRepository.saveAll(stockReleases(List.of(saved.getId())));
+        orderRollups.recordTransition(saved, previous, Order.OrderStatus.CANCELLED);
+        customerOrderHistory.recordStatus(saved, Order.OrderStatus.CANCELLED);
+    }
+
+    /**
+     * Releases for the reservations of the cancelled orders that product-service has
+     * applied. Callers hold the orders' row locks, so a reservation still pending here is
+     * released by the outbox relay once delivered, and a rejected one is never released.
+     */
+    private List<OutboxEvent> stockReleases(Collection<Long> orderIds) {
+        return outboxEventRepository.findByOrderIdInAndEventTypeAndStatus(orderIds,
+                        OutboxEvent.EventType.ORDER_CREATED, OutboxEvent.Status.SENT).stream()
+                .map(OutboxEvent::stockReleased)
+                .toList();
     }
 }
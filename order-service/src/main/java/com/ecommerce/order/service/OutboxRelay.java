@@ -0,0 +1,154 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.client.StockAdjustment;
+import com.ecommerce.order.client.StockAdjustmentResult;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OutboxEvent;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers pending outbox events to product-service in batches, at least once. Each
+ * batch is read, sent and marked in separate short steps, so no transaction is open while
+ * the HTTP call is in flight. If the call fails the rows stay pending and the whole batch
+ * is resent on the next run; product-service drops the repeats by dedup key.
+ * <p>
+ * A rejected stock reservation cancels its order, releasing whatever other reservations
+ * of it did apply. A reservation delivered after its order was cancelled is released here.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final ProductClient productClient;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OrderRepository orderRepository,
+                       OrderService orderService,
+                       ProductClient productClient,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${outbox.relay.retention:7d}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.productClient = productClient;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    /**
+     * Relays batches until nothing is pending or a delivery fails.
+     *
+     * @return the number of events processed, delivered or rejected
+     */
+    public int relayPending() {
+        int processed = 0;
+        while (true) {
+            List<OutboxEvent> batch = outboxEventRepository.findByStatusOrderByIdAsc(
+                    OutboxEvent.Status.PENDING, Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                return processed;
+            }
+            if (!deliver(batch)) {
+                return processed;
+            }
+            processed += batch.size();
+            if (batch.size() < batchSize) {
+                return processed;
+            }
+        }
+    }
+
+    private boolean deliver(List<OutboxEvent> batch) {
+        List<StockAdjustment> adjustments = batch.stream()
+                .map(event -> new StockAdjustment(event.getDedupKey(), event.getProductId(), event.getQuantity()))
+                .toList();
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+
+        Map<String, StockAdjustmentResult> results;
+        try {
+            results = productClient.adjustStock(adjustments);
+        } catch (RuntimeException e) {
+            log.warn("Delivering {} outbox events failed: {}", batch.size(), e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.recordFailedAttempt(ids, truncate(e.getMessage())));
+            return false;
+        }
+
+        List<Long> sent = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            // Cancellations lock the order before looking for delivered reservations, so with
+            // the orders locked here each applied reservation is released exactly once
+            Map<Long, Order> orders = orderRepository.findByIdInOrderByIdAsc(
+                            batch.stream().map(OutboxEvent::getOrderId).distinct().toList()).stream()
+                    .collect(Collectors.toMap(Order::getId, Function.identity()));
+            List<OutboxEvent> releases = new ArrayList<>();
+            List<Order> rejectedOrders = new ArrayList<>();
+            for (OutboxEvent event : batch) {
+                StockAdjustmentResult result = results.get(event.getDedupKey());
+                Order order = orders.get(event.getOrderId());
+                boolean reservation = event.getEventType() == OutboxEvent.EventType.ORDER_CREATED;
+                boolean cancelled = order != null && order.getStatus() == Order.OrderStatus.CANCELLED;
+                if (result != null && result.isDelivered()) {
+                    sent.add(event.getId());
+                    if (reservation && cancelled) {
+                        // Cancelled while the reservation was pending, so nothing released it yet
+                        releases.add(OutboxEvent.stockReleased(event));
+                    }
+                } else {
+                    // A rejection will not change on resend, so it is parked for inspection
+                    String error = result != null ? result.getMessage() : "No result returned";
+                    log.warn("Outbox event {} for order {} rejected: {}", event.getDedupKey(), event.getOrderId(), error);
+                    outboxEventRepository.markProcessed(event.getId(), OutboxEvent.Status.FAILED, now, truncate(error));
+                    if (reservation && order != null && !cancelled && !rejectedOrders.contains(order)) {
+                        rejectedOrders.add(order);
+                    }
+                }
+            }
+            if (!sent.isEmpty()) {
+                outboxEventRepository.markProcessed(sent, OutboxEvent.Status.SENT, now);
+            }
+            outboxEventRepository.saveAll(releases);
+            // After the SENT marks, so reservations of the order delivered in this batch are released
+            rejectedOrders.forEach(orderService::cancelRejectedOrder);
+        });
+        log.debug("Delivered {} of {} outbox events", sent.size(), batch.size());
+        return true;
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= OutboxEvent.MAX_ERROR_LENGTH ? error : error.substring(0, OutboxEvent.MAX_ERROR_LENGTH);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.cleanup-interval-ms:3600000}")
+    public void deleteSentEvents() {
+        int deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteProcessedBefore(OutboxEvent.Status.SENT, LocalDateTime.now().minus(retention)));
+        if (deleted > 0) {
+            log.info("Deleted {} delivered outbox events", deleted);
+        }
+    }
+}
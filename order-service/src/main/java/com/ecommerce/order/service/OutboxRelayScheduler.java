@@ -0,0 +1,29 @@
+package com.ecommerce.order.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the outbox relay in the background; tests turn it off and drive it directly. Only
+ * the relay is switched off: the outbox cleanup and the other jobs keep their schedules.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayScheduler {
+
+    private final OutboxRelay outboxRelay;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void scheduledRelay() {
+        try {
+            outboxRelay.relayPending();
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay run failed, will retry: {}", e.getMessage());
+        }
+    }
+}
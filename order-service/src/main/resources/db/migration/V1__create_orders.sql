@@ -0,0 +1,67 @@
+-- Schema of the persistent profile; must match the entity mappings, which Hibernate
+-- validates at startup. Sequences step by 50 to match the pooled id allocation.
+
+CREATE SEQUENCE orders_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE orders (
+    id               BIGINT         NOT NULL PRIMARY KEY,
+    -- Null for multi-line orders, whose products are in order_lines
+    product_id       BIGINT,
+    quantity         INTEGER        NOT NULL,
+    total_amount     NUMERIC(38, 2) NOT NULL,
+    status           VARCHAR(255) CHECK (status IN ('PENDING', 'CONFIRMED', 'PROCESSING', 'SHIPPED', 'DELIVERED',
+                                                    'CANCELLED', 'REFUNDED')),
+    customer_email   VARCHAR(255)   NOT NULL,
+    customer_name    VARCHAR(255),
+    shipping_address VARCHAR(255),
+    notes            VARCHAR(255),
+    created_at       TIMESTAMP(6),
+    updated_at       TIMESTAMP(6),
+    version          BIGINT
+);
+
+CREATE INDEX idx_orders_customer_email_created_at ON orders (customer_email, created_at);
+CREATE INDEX idx_orders_status_created_at ON orders (status, created_at);
+CREATE INDEX idx_orders_product_id_created_at ON orders (product_id, created_at);
+
+CREATE SEQUENCE order_lines_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE order_lines (
+    id          BIGINT         NOT NULL PRIMARY KEY,
+    order_id    BIGINT         NOT NULL,
+    line_number INTEGER        NOT NULL,
+    product_id  BIGINT         NOT NULL,
+    quantity    INTEGER        NOT NULL,
+    unit_price  NUMERIC(38, 2) NOT NULL,
+    line_total  NUMERIC(38, 2) NOT NULL
+);
+
+CREATE INDEX idx_order_lines_order_id ON order_lines (order_id, line_number);
+CREATE INDEX idx_order_lines_product_id ON order_lines (product_id);
+
+CREATE SEQUENCE outbox_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE outbox_events (
+    id           BIGINT       NOT NULL PRIMARY KEY,
+    dedup_key    VARCHAR(100) NOT NULL UNIQUE,
+    order_id     BIGINT       NOT NULL,
+    product_id   BIGINT       NOT NULL,
+    quantity     INTEGER      NOT NULL,
+    event_type   VARCHAR(255) NOT NULL CHECK (event_type IN ('ORDER_CREATED', 'ORDER_CANCELLED')),
+    status       VARCHAR(255) NOT NULL CHECK (status IN ('PENDING', 'SENT', 'FAILED')),
+    attempts     INTEGER,
+    last_error   VARCHAR(255),
+    created_at   TIMESTAMP(6),
+    processed_at TIMESTAMP(6)
+);
+
+CREATE INDEX idx_outbox_events_status_id ON outbox_events (status, id);
+
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(255) NOT NULL PRIMARY KEY,
+    request_hash    VARCHAR(64)  NOT NULL,
+    order_id        BIGINT       NOT NULL,
+    created_at      TIMESTAMP(6)
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
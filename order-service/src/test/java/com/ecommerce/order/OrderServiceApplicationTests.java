@@ -1,19 +1,57 @@
 package com.ecommerce.order;
 
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.client.ProductInfo;
+import com.ecommerce.order.client.ProductServiceUnavailableException;
+import com.ecommerce.order.client.StockAdjustment;
+import com.ecommerce.order.client.StockAdjustmentResult;
+import com.ecommerce.order.model.IdempotencyRecord;
 import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OutboxEvent;
+import com.ecommerce.order.repository.IdempotencyRecordRepository;
+import com.ecommerce.order.repository.OrderLineRepository;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OutboxEventRepository;
+import com.ecommerce.order.service.CustomerOrderHistory;
+import com.ecommerce.order.service.OrderIdempotency;
+import com.ecommerce.order.service.OutboxRelay;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -31,15 +69,67 @@ class OrderServiceApplicationTests {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OrderIdempotency orderIdempotency;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CustomerOrderHistory customerOrderHistory;
+
+    @Autowired
+    private ScheduledTaskHolder scheduledTaskHolder;
+
+    @MockBean
+    private ProductClient productClient;
+
     @BeforeEach
     void setUp() {
         orderRepository.deleteAll();
+        orderLineRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        idempotencyRecordRepository.deleteAll();
+        customerOrderHistory.evictAll();
+        ProductInfo product = ProductInfo.builder()
+                .id(1L)
+                .name("Test Product")
+                .price(new BigDecimal("99.99"))
+                .stock(100)
+                .active(true)
+                .build();
+        when(productClient.findProduct(anyLong())).thenReturn(Optional.of(product));
+        when(productClient.findProducts(any())).thenReturn(Map.of(1L, product));
     }
 
     @Test
     void contextLoads() {
     }
 
+    @Test
+    void shouldKeepCleanupJobsScheduledWhileTheRelayIsDisabled() {
+        Set<String> jobs = scheduledTaskHolder.getScheduledTasks().stream()
+                .map(task -> task.getTask().getRunnable())
+                .filter(ScheduledMethodRunnable.class::isInstance)
+                .map(runnable -> ((ScheduledMethodRunnable) runnable).getMethod().getName())
+                .collect(Collectors.toSet());
+
+        assertTrue(jobs.containsAll(Set.of("deleteExpiredKeys", "deleteSentEvents", "evictExpiredBuckets")), jobs.toString());
+        assertFalse(jobs.contains("scheduledRelay"), jobs.toString());
+    }
+
     @Test
     void shouldCreateOrder() throws Exception {
         Order order = Order.builder()
@@ -59,10 +149,53 @@ class OrderServiceApplicationTests {
                 .andExpect(jsonPath("$.status").value("PENDING"));
     }
 
+    @Test
+    void shouldPriceOrderFromProductService() throws Exception {
+        Order order = sampleOrder("priced@example.com");
+        order.setQuantity(3);
+        order.setTotalAmount(new BigDecimal("0.01"));
+
+        mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.totalAmount").value(299.97));
+    }
+
+    @Test
+    void shouldRejectOrderExceedingStock() throws Exception {
+        Order order = sampleOrder("greedy@example.com");
+        order.setQuantity(101);
+
+        mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isBadRequest());
+        assertEquals(0, orderRepository.count());
+    }
+
+    @Test
+    void shouldReturn503WhenProductServiceIsDown() throws Exception {
+        when(productClient.findProduct(anyLong()))
+                .thenThrow(new ProductServiceUnavailableException("down", new RuntimeException()));
+
+        mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sampleOrder("down@example.com"))))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     void shouldGetAllOrders() throws Exception {
+        Order order = sampleOrder("all@example.com");
+        order.setNotes("ring twice");
+        orderRepository.save(order);
+
         mockMvc.perform(get("/api/orders"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].customerEmail").value("all@example.com"))
+                .andExpect(jsonPath("$[0].notes").doesNotExist());
     }
 
     @Test
@@ -71,10 +204,595 @@ class OrderServiceApplicationTests {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void shouldPageOrdersByKeyset() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Order order = sampleOrder("page" + i + "@example.com");
+            order.setNotes("ring twice");
+            orderRepository.save(order);
+        }
+
+        MvcResult first = mockMvc.perform(get("/api/orders").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].notes").doesNotExist())
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+
+        mockMvc.perform(get("/api/orders")
+                        .param("after", first.getResponse().getHeader("X-Next-Cursor"))
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].customerEmail").value("page2@example.com"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void shouldListOrderSummariesNewestFirst() throws Exception {
+        Order older = sampleOrder("summary@example.com");
+        older.setNotes("leave at the door");
+        older.setCreatedAt(LocalDateTime.now().minusDays(1));
+        Order newer = sampleOrder("summary@example.com");
+        newer.setProductId(7L);
+        orderRepository.saveAll(List.of(older, newer, sampleOrder("other@example.com")));
+
+        mockMvc.perform(get("/api/orders").param("customerEmail", "summary@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].productId").value(7))
+                .andExpect(jsonPath("$[1].customerName").value("Jane Doe"))
+                .andExpect(jsonPath("$[1].notes").doesNotExist());
+
+        mockMvc.perform(get("/api/orders").param("status", "PENDING"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+
+        mockMvc.perform(get("/api/orders").param("productId", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].customerEmail").value("summary@example.com"));
+    }
+
+    @Test
+    void shouldPageCustomerHistoryPastCachedOrders() throws Exception {
+        List<Order> seeded = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Order order = sampleOrder("history@example.com");
+            order.setCreatedAt(LocalDateTime.now().minusHours(i));
+            seeded.add(order);
+        }
+        orderRepository.saveAll(seeded);
+
+        mockMvc.perform(get("/api/orders").param("customerEmail", "history@example.com").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(seeded.get(0).getId()));
+
+        // Written through the service after the history was loaded
+        MvcResult created = mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sampleOrder("history@example.com"))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long newest = objectMapper.readValue(created.getResponse().getContentAsString(), Order.class).getId();
+        mockMvc.perform(post("/api/orders/" + newest + "/cancel")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/orders").param("customerEmail", "history@example.com").param("limit", "1"))
+                .andExpect(jsonPath("$[0].id").value(newest))
+                .andExpect(jsonPath("$[0].status").value("CANCELLED"))
+                .andExpect(jsonPath("$[0].totalAmount").value(99.99));
+
+        mockMvc.perform(get("/api/orders").param("customerEmail", "history@example.com")
+                        .param("offset", "2").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(seeded.get(1).getId()))
+                .andExpect(jsonPath("$[1].id").value(seeded.get(2).getId()))
+                .andExpect(jsonPath("$[2].id").value(seeded.get(3).getId()));
+
+        // Without a limit the list is the cached orders, with the rest behind the cursor
+        mockMvc.perform(get("/api/orders").param("customerEmail", "history@example.com"))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(newest))
+                .andExpect(header().string("X-Next-Cursor", "3"));
+        mockMvc.perform(get("/api/orders").param("customerEmail", "history@example.com").param("offset", "3"))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[2].id").value(seeded.get(4).getId()));
+        mockMvc.perform(get("/api/orders").param("customerEmail", "history@example.com")
+                        .param("offset", "4").param("limit", "5"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void shouldStreamOrdersAsNdjson() throws Exception {
+        orderRepository.save(sampleOrder("stream1@example.com"));
+        orderRepository.save(sampleOrder("stream2@example.com"));
+
+        MvcResult result = mockMvc.perform(get("/api/orders/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.strip().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("stream2@example.com", objectMapper.readValue(lines[1], Order.class).getCustomerEmail());
+    }
+
+    @Test
+    void shouldCreateOrdersInBatch() throws Exception {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            orders.add(sampleOrder("batch" + i + "@example.com"));
+        }
+        orders.get(7).setCustomerEmail("not-an-email");
+        orders.get(9).setProductId(42L);
+
+        mockMvc.perform(post("/api/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orders)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(120))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].orderId").isNumber())
+                .andExpect(jsonPath("$[7].status").value("REJECTED"))
+                .andExpect(jsonPath("$[7].errors[0]").value("customerEmail: Valid email is required"))
+                .andExpect(jsonPath("$[9].status").value("REJECTED"))
+                .andExpect(jsonPath("$[9].errors[0]").value("Product not found with id: 42"));
+
+        assertEquals(118, orderRepository.count());
+        assertEquals(118, outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING));
+    }
+
+    @Test
+    void shouldRejectEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRelayStockReservationThroughOutbox() throws Exception {
+        Order order = sampleOrder("outbox@example.com");
+        order.setQuantity(2);
+        MvcResult result = mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long orderId = objectMapper.readValue(result.getResponse().getContentAsString(), Order.class).getId();
+
+        List<OutboxEvent> events = outboxEventRepository.findByOrderIdOrderByIdAsc(orderId);
+        assertEquals(1, events.size());
+        assertEquals(-2, events.get(0).getQuantity());
+        assertEquals(OutboxEvent.Status.PENDING, events.get(0).getStatus());
+
+        String key = events.get(0).getDedupKey();
+        when(productClient.adjustStock(any())).thenReturn(Map.of(key,
+                new StockAdjustmentResult(key, StockAdjustmentResult.Status.APPLIED, null)));
+
+        assertEquals(1, outboxRelay.relayPending());
+        assertEquals(OutboxEvent.Status.SENT, outboxEventRepository.findByOrderIdOrderByIdAsc(orderId).get(0).getStatus());
+        verify(productClient).adjustStock(List.of(new StockAdjustment(key, 1L, -2)));
+        assertEquals(0, outboxRelay.relayPending());
+    }
+
+    @Test
+    void shouldKeepOutboxEventsPendingWhileProductServiceIsDown() {
+        Order order = orderRepository.save(sampleOrder("retry@example.com"));
+        OutboxEvent event = outboxEventRepository.save(OutboxEvent.stockReserved(order));
+        when(productClient.adjustStock(any()))
+                .thenThrow(new ProductServiceUnavailableException("down", new RuntimeException()));
+
+        assertEquals(0, outboxRelay.relayPending());
+        OutboxEvent pending = outboxEventRepository.findById(event.getId()).orElseThrow();
+        assertEquals(OutboxEvent.Status.PENDING, pending.getStatus());
+        assertEquals(1, pending.getAttempts());
+        assertNotNull(pending.getLastError());
+
+        reset(productClient);
+        when(productClient.adjustStock(any())).thenReturn(Map.of(event.getDedupKey(),
+                new StockAdjustmentResult(event.getDedupKey(), StockAdjustmentResult.Status.DUPLICATE, null)));
+        assertEquals(1, outboxRelay.relayPending());
+        assertEquals(OutboxEvent.Status.SENT, outboxEventRepository.findById(event.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldReleaseStockOnceWhenCancelled() throws Exception {
+        Order order = orderRepository.save(sampleOrder("cancel@example.com"));
+        OutboxEvent reservation = OutboxEvent.stockReserved(order);
+        reservation.setStatus(OutboxEvent.Status.SENT);
+        outboxEventRepository.save(reservation);
+
+        mockMvc.perform(post("/api/orders/" + order.getId() + "/cancel")).andExpect(status().isOk());
+        mockMvc.perform(post("/api/orders/" + order.getId() + "/cancel")).andExpect(status().isOk());
+
+        List<OutboxEvent> events = outboxEventRepository.findByOrderIdOrderByIdAsc(order.getId());
+        assertEquals(2, events.size());
+        assertEquals(OutboxEvent.EventType.ORDER_CANCELLED, events.get(1).getEventType());
+        assertEquals(1, events.get(1).getQuantity());
+        assertEquals("order-" + order.getId() + "-order_cancelled", events.get(1).getDedupKey());
+    }
+
+    @Test
+    void shouldReleaseReservationDeliveredAfterCancel() throws Exception {
+        Order order = orderRepository.save(sampleOrder("late@example.com"));
+        OutboxEvent reservation = outboxEventRepository.save(OutboxEvent.stockReserved(order));
+
+        mockMvc.perform(post("/api/orders/" + order.getId() + "/cancel")).andExpect(status().isOk());
+        assertEquals(1, outboxEventRepository.findByOrderIdOrderByIdAsc(order.getId()).size());
+
+        when(productClient.adjustStock(any())).thenAnswer(invocation -> applied(invocation.getArgument(0)));
+        assertEquals(1, outboxRelay.relayPending());
+        List<OutboxEvent> events = outboxEventRepository.findByOrderIdOrderByIdAsc(order.getId());
+        assertEquals(List.of(-1, 1), events.stream().map(OutboxEvent::getQuantity).toList());
+        assertEquals(OutboxEvent.Status.SENT, events.get(0).getStatus());
+        assertEquals(reservation.getId(), events.get(0).getId());
+
+        assertEquals(1, outboxRelay.relayPending());
+        assertEquals(0, outboxRelay.relayPending());
+    }
+
+    @Test
+    void shouldCancelOrderWhenStockReservationIsRejected() throws Exception {
+        ProductInfo first = ProductInfo.builder()
+                .id(1L).name("First").price(new BigDecimal("10.00")).stock(100).active(true).build();
+        ProductInfo second = ProductInfo.builder()
+                .id(2L).name("Second").price(new BigDecimal("2.50")).stock(5).active(true).build();
+        when(productClient.findProducts(any())).thenReturn(Map.of(1L, first, 2L, second));
+        String cart = objectMapper.writeValueAsString(Map.of(
+                "customerEmail", "rejected@example.com",
+                "customerName", "Jane Doe",
+                "lines", List.of(Map.of("productId", 1, "quantity", 3), Map.of("productId", 2, "quantity", 4))));
+        mockMvc.perform(post("/api/orders/stats/rebuild")).andExpect(status().isOk());
+        String created = mockMvc.perform(post("/api/orders/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cart))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readValue(created, Order.class).getId();
+
+        String error = "Insufficient stock for product: 2 " + "x".repeat(400);
+        when(productClient.adjustStock(any())).thenAnswer(invocation -> {
+            List<StockAdjustment> adjustments = invocation.getArgument(0);
+            return adjustments.stream().collect(Collectors.toMap(StockAdjustment::getKey, a -> a.getProductId() == 2L
+                    ? new StockAdjustmentResult(a.getKey(), StockAdjustmentResult.Status.REJECTED, error)
+                    : new StockAdjustmentResult(a.getKey(), StockAdjustmentResult.Status.APPLIED, null)));
+        });
+        assertEquals(2, outboxRelay.relayPending());
+
+        assertEquals(Order.OrderStatus.CANCELLED, orderRepository.findById(id).orElseThrow().getStatus());
+        List<OutboxEvent> events = outboxEventRepository.findByOrderIdOrderByIdAsc(id);
+        assertEquals(List.of(-3, -4, 3), events.stream().map(OutboxEvent::getQuantity).toList());
+        assertEquals(OutboxEvent.Status.FAILED, events.get(1).getStatus());
+        assertEquals(OutboxEvent.MAX_ERROR_LENGTH, events.get(1).getLastError().length());
+        assertEquals(1L, events.get(2).getProductId());
+
+        mockMvc.perform(post("/api/orders/" + id + "/cancel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+        assertEquals(3, outboxEventRepository.findByOrderIdOrderByIdAsc(id).size());
+        mockMvc.perform(get("/api/orders/stats"))
+                .andExpect(jsonPath("$.total.orders").value(0))
+                .andExpect(jsonPath("$.byStatus.CANCELLED.units").value(7));
+    }
+
+    @Test
+    void shouldCheckoutCartAsOneOrderWithLines() throws Exception {
+        ProductInfo first = ProductInfo.builder()
+                .id(1L).name("First").price(new BigDecimal("10.00")).stock(100).active(true).build();
+        ProductInfo second = ProductInfo.builder()
+                .id(2L).name("Second").price(new BigDecimal("2.50")).stock(5).active(true).build();
+        when(productClient.findProducts(any())).thenReturn(Map.of(1L, first, 2L, second));
+        String cart = objectMapper.writeValueAsString(Map.of(
+                "customerEmail", "cart@example.com",
+                "customerName", "Jane Doe",
+                "lines", List.of(
+                        Map.of("productId", 1, "quantity", 2),
+                        Map.of("productId", 2, "quantity", 4),
+                        Map.of("productId", 1, "quantity", 1))));
+        mockMvc.perform(post("/api/orders/stats/rebuild")).andExpect(status().isOk());
+
+        String created = mockMvc.perform(post("/api/orders/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cart))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.productId").doesNotExist())
+                .andExpect(jsonPath("$.quantity").value(7))
+                .andExpect(jsonPath("$.totalAmount").value(40.00))
+                .andExpect(jsonPath("$.lines.length()").value(2))
+                .andExpect(jsonPath("$.lines[0].quantity").value(3))
+                .andExpect(jsonPath("$.lines[1].unitPrice").value(2.50))
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readValue(created, Order.class).getId();
+        verify(productClient, times(1)).findProducts(any());
+        verify(productClient, never()).findProduct(anyLong());
+
+        mockMvc.perform(get("/api/orders/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines[1].productId").value(2));
+        mockMvc.perform(get("/api/orders").param("productId", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(id));
+        String incremental = mockMvc.perform(get("/api/orders/stats"))
+                .andExpect(jsonPath("$.total.orders").value(1))
+                .andExpect(jsonPath("$.byProduct.1.units").value(3))
+                .andExpect(jsonPath("$.byProduct.2.amount").value(10.00))
+                .andReturn().getResponse().getContentAsString();
+        String rebuilt = mockMvc.perform(post("/api/orders/stats/rebuild"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(withoutRebuiltAt(incremental), withoutRebuiltAt(rebuilt));
+
+        List<OutboxEvent> reservations = outboxEventRepository.findByOrderIdOrderByIdAsc(id);
+        assertEquals(List.of(-3, -4), reservations.stream().map(OutboxEvent::getQuantity).toList());
+        when(productClient.adjustStock(any())).thenAnswer(invocation -> {
+            List<StockAdjustment> adjustments = invocation.getArgument(0);
+            return adjustments.stream().collect(Collectors.toMap(StockAdjustment::getKey,
+                    a -> new StockAdjustmentResult(a.getKey(), StockAdjustmentResult.Status.APPLIED, null)));
+        });
+        assertEquals(2, outboxRelay.relayPending());
+        verify(productClient, times(1)).adjustStock(any());
+
+        mockMvc.perform(post("/api/orders/" + id + "/cancel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines.length()").value(2));
+        List<OutboxEvent> events = outboxEventRepository.findByOrderIdOrderByIdAsc(id);
+        assertEquals(List.of(-3, -4, 3, 4), events.stream().map(OutboxEvent::getQuantity).toList());
+        mockMvc.perform(get("/api/orders/stats"))
+                .andExpect(jsonPath("$.total.orders").value(0))
+                .andExpect(jsonPath("$.byProduct.2.orders").value(0))
+                .andExpect(jsonPath("$.byStatus.CANCELLED.amount").value(40.00));
+        mockMvc.perform(post("/api/orders/stats/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total.orders").value(0))
+                .andExpect(jsonPath("$.byProduct.length()").value(0))
+                .andExpect(jsonPath("$.byStatus.CANCELLED.units").value(7))
+                .andExpect(jsonPath("$.byStatus.CANCELLED.amount").value(40.00));
+    }
+
+    @Test
+    void shouldRejectCheckoutListingEveryUnavailableLine() throws Exception {
+        String cart = objectMapper.writeValueAsString(Map.of(
+                "customerEmail", "cart@example.com",
+                "customerName", "Jane Doe",
+                "lines", List.of(Map.of("productId", 1, "quantity", 1), Map.of("productId", 42, "quantity", 1))));
+
+        mockMvc.perform(post("/api/orders/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cart))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/orders/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerEmail\":\"cart@example.com\",\"customerName\":\"Jane Doe\",\"lines\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, orderRepository.count());
+        assertEquals(0, orderLineRepository.count());
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void shouldRejectInvalidStatusTransition() throws Exception {
+        Order order = orderRepository.save(sampleOrder("transition@example.com"));
+
+        mockMvc.perform(patch("/api/orders/" + order.getId() + "/status").param("status", "SHIPPED"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(patch("/api/orders/" + order.getId() + "/status").param("status", "CONFIRMED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"))
+                .andExpect(jsonPath("$.version").value(1));
+        mockMvc.perform(patch("/api/orders/999999/status").param("status", "CONFIRMED"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldUpdateStatusesInBulk() throws Exception {
+        Order pending = orderRepository.save(sampleOrder("bulk1@example.com"));
+        Order confirmed = sampleOrder("bulk2@example.com");
+        confirmed.setStatus(Order.OrderStatus.CONFIRMED);
+        confirmed = orderRepository.save(confirmed);
+        Order delivered = sampleOrder("bulk3@example.com");
+        delivered.setStatus(Order.OrderStatus.DELIVERED);
+        delivered = orderRepository.save(delivered);
+        for (Order reserved : List.of(pending, confirmed)) {
+            OutboxEvent reservation = OutboxEvent.stockReserved(reserved);
+            reservation.setStatus(OutboxEvent.Status.SENT);
+            outboxEventRepository.save(reservation);
+        }
+
+        String body = objectMapper.writeValueAsString(Map.of(
+                "ids", List.of(pending.getId(), confirmed.getId(), delivered.getId(), 999999L),
+                "status", "CANCELLED"));
+        mockMvc.perform(patch("/api/orders/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.rejected.length()").value(2))
+                .andExpect(jsonPath("$.rejected[0].id").value(delivered.getId()))
+                .andExpect(jsonPath("$.rejected[0].currentStatus").value("DELIVERED"))
+                .andExpect(jsonPath("$.rejected[1].id").value(999999));
+
+        Order cancelled = orderRepository.findById(confirmed.getId()).orElseThrow();
+        assertEquals(Order.OrderStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(1L, cancelled.getVersion());
+        assertEquals(2, outboxEventRepository.findByOrderIdOrderByIdAsc(pending.getId()).size());
+        assertEquals(2, outboxEventRepository.findByOrderIdOrderByIdAsc(confirmed.getId()).size());
+        assertEquals(0, outboxEventRepository.findByOrderIdOrderByIdAsc(delivered.getId()).size());
+
+        mockMvc.perform(patch("/api/orders/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[],\"status\":\"CONFIRMED\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldMaintainStatsAsOrdersCommit() throws Exception {
+        Order shipped = sampleOrder("shipped@example.com");
+        shipped.setStatus(Order.OrderStatus.SHIPPED);
+        orderRepository.save(shipped);
+        mockMvc.perform(post("/api/orders/stats/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total.orders").value(1))
+                .andExpect(jsonPath("$.byStatus.SHIPPED.amount").value(49.99));
+
+        Order order = sampleOrder("stats@example.com");
+        order.setQuantity(2);
+        String created = mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readValue(created, Order.class).getId();
+        mockMvc.perform(get("/api/orders/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total.orders").value(2))
+                .andExpect(jsonPath("$.total.amount").value(249.97))
+                .andExpect(jsonPath("$.byStatus.PENDING.orders").value(1))
+                .andExpect(jsonPath("$.byProduct.1.units").value(3))
+                .andExpect(jsonPath("$.byDay.length()").value(1));
+
+        mockMvc.perform(patch("/api/orders/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("ids", List.of(id), "status", "CONFIRMED"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/orders/" + id + "/cancel")).andExpect(status().isOk());
+        String incremental = mockMvc.perform(get("/api/orders/stats"))
+                .andExpect(jsonPath("$.total.orders").value(1))
+                .andExpect(jsonPath("$.total.amount").value(49.99))
+                .andExpect(jsonPath("$.byStatus.PENDING.orders").value(0))
+                .andExpect(jsonPath("$.byStatus.CONFIRMED.orders").value(0))
+                .andExpect(jsonPath("$.byStatus.CANCELLED.amount").value(199.98))
+                .andReturn().getResponse().getContentAsString();
+
+        String rebuilt = mockMvc.perform(post("/api/orders/stats/rebuild"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(withoutRebuiltAt(incremental), withoutRebuiltAt(rebuilt));
+    }
+
+    @Test
+    void shouldReplayOrderForRepeatedIdempotencyKey() throws Exception {
+        String body = objectMapper.writeValueAsString(sampleOrder("retry@example.com"));
+        String first = mockMvc.perform(post("/api/orders").header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "false"))
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readValue(first, Order.class).getId();
+
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(id));
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sampleOrder("other@example.com"))))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertEquals(1, orderRepository.count());
+        assertEquals(1, outboxEventRepository.count());
+        assertEquals(id, idempotencyRecordRepository.findById("retry-1").orElseThrow().getOrderId());
+    }
+
+    @Test
+    void shouldFindIdempotencyKeysStoredByEarlierRuns() throws Exception {
+        Order order = orderRepository.save(sampleOrder("restart@example.com"));
+        idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                .idempotencyKey("before-restart")
+                .requestHash(OrderIdempotency.requestHash(sampleOrder("restart@example.com")))
+                .orderId(order.getId())
+                .build());
+
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", "before-restart")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sampleOrder("restart@example.com"))))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(order.getId()));
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    void shouldCreateOneOrderForConcurrentDuplicates() throws Exception {
+        ProductInfo slowProduct = ProductInfo.builder()
+                .id(1L).name("Slow Product").price(new BigDecimal("10.00")).stock(100).active(true).build();
+        when(productClient.findProduct(anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return Optional.of(slowProduct);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<OrderIdempotency.Result>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> orderIdempotency.createOrder("burst-1", sampleOrder("burst@example.com"))));
+        }
+        Set<Long> ids = new HashSet<>();
+        int created = 0;
+        for (Future<OrderIdempotency.Result> result : results) {
+            ids.add(result.get(30, TimeUnit.SECONDS).order().getId());
+            created += result.get().replayed() ? 0 : 1;
+        }
+        executor.shutdown();
+
+        assertEquals(1, ids.size());
+        assertEquals(1, created);
+        assertEquals(1, orderRepository.count());
+        verify(productClient, times(1)).findProduct(1L);
+    }
+
+    @Test
+    void shouldRecordStatementsPerRequest() throws Exception {
+        Order order = orderRepository.save(sampleOrder("metered@example.com"));
+        double requestsBefore = statementsPerLookup().count();
+        double statementsBefore = statementsPerLookup().totalAmount();
+
+        mockMvc.perform(get("/api/orders/" + order.getId())).andExpect(status().isOk());
+
+        assertEquals(1, statementsPerLookup().count() - requestsBefore);
+        assertEquals(1, statementsPerLookup().totalAmount() - statementsBefore);
+        assertTrue(meterRegistry.get("db.queries").tag("operation", "select").timer().count() > 0);
+    }
+
     @Test
     void shouldReturnHealthStatus() throws Exception {
         mockMvc.perform(get("/api/orders/health"))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Order Service is UP"));
     }
+
+    private Map<?, ?> withoutRebuiltAt(String stats) throws Exception {
+        Map<?, ?> map = objectMapper.readValue(stats, Map.class);
+        map.remove("rebuiltAt");
+        return map;
+    }
+
+    private DistributionSummary statementsPerLookup() {
+        return DistributionSummary.builder("http.server.requests.queries")
+                .tags("method", "GET", "uri", "/api/orders/{id}")
+                .register(meterRegistry);
+    }
+
+    private static Map<String, StockAdjustmentResult> applied(List<StockAdjustment> adjustments) {
+        return adjustments.stream().collect(Collectors.toMap(StockAdjustment::getKey,
+                a -> new StockAdjustmentResult(a.getKey(), StockAdjustmentResult.Status.APPLIED, null)));
+    }
+
+    private Order sampleOrder(String email) {
+        return Order.builder()
+                .productId(1L)
+                .quantity(1)
+                .totalAmount(new BigDecimal("49.99"))
+                .customerEmail(email)
+                .customerName("Jane Doe")
+                .build();
+    }
 }
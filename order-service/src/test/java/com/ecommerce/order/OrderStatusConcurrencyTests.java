@@ -0,0 +1,243 @@
+package com.ecommerce.order;
+
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.dto.OrderStats;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OutboxEvent;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OutboxEventRepository;
+import com.ecommerce.order.service.InvalidStatusTransitionException;
+import com.ecommerce.order.service.OrderRollups;
+import com.ecommerce.order.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest(properties = "stats.rebuild.chunk-size=8")
+@ActiveProfiles("test")
+class OrderStatusConcurrencyTests {
+
+    private static final int ORDERS = 50;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderService orderService;
+
+    @SpyBean
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderRollups orderRollups;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockBean
+    private ProductClient productClient;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void shouldNeverLoseRacingTransitions() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            ids.add(reservedOrder("race" + i + "@example.com"));
+        }
+
+        // Half the threads confirm and half cancel every order. Every applied transition
+        // must show up in the version, and a cancelled order releases its stock exactly once.
+        AtomicIntegerArray applied = new AtomicIntegerArray(ORDERS);
+        AtomicInteger lost = new AtomicInteger();
+        runConcurrently(THREADS, thread -> {
+            Order.OrderStatus target = thread % 2 == 0 ? Order.OrderStatus.CONFIRMED : Order.OrderStatus.CANCELLED;
+            for (int i = 0; i < ORDERS; i++) {
+                try {
+                    orderService.updateOrderStatus(ids.get(i), target);
+                    applied.incrementAndGet(i);
+                } catch (OptimisticLockingFailureException | InvalidStatusTransitionException e) {
+                    lost.incrementAndGet();
+                }
+            }
+        });
+
+        int total = 0;
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = orderRepository.findById(ids.get(i)).orElseThrow();
+            int releases = releases(order.getId());
+            assertEquals(applied.get(i), order.getVersion().intValue());
+            assertEquals(order.getStatus() == Order.OrderStatus.CANCELLED ? 1 : 0, releases);
+            assertTrue(applied.get(i) <= 2, "PENDING -> CONFIRMED -> CANCELLED is the longest path");
+            total += applied.get(i);
+        }
+        assertEquals(THREADS * ORDERS, total + lost.get());
+    }
+
+    @Test
+    void shouldReleaseStockOnceWhenBulkCancelsRace() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            ids.add(reservedOrder("bulk" + i + "@example.com"));
+        }
+
+        AtomicInteger updated = new AtomicInteger();
+        runConcurrently(THREADS, thread ->
+                updated.addAndGet(orderService.updateOrderStatuses(ids, Order.OrderStatus.CANCELLED).getUpdated()));
+
+        assertEquals(ORDERS, updated.get());
+        for (Long id : ids) {
+            Order order = orderRepository.findById(id).orElseThrow();
+            assertEquals(Order.OrderStatus.CANCELLED, order.getStatus());
+            assertEquals(1L, order.getVersion());
+            assertEquals(1, releases(id));
+        }
+    }
+
+    @Test
+    void shouldCountEveryTransitionOnceWhileRebuilding() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            ids.add(orderRepository.save(order("stats" + i + "@example.com")).getId());
+        }
+        orderRollups.rebuild();
+
+        // One thread keeps rebuilding while the others move orders along; the rollups kept
+        // up to date on commit must match a final rebuild from the table.
+        AtomicInteger rebuilds = new AtomicInteger();
+        runConcurrently(THREADS, thread -> {
+            if (thread == 0) {
+                for (int i = 0; i < 20; i++) {
+                    orderRollups.rebuild();
+                    rebuilds.incrementAndGet();
+                }
+                return;
+            }
+            Order.OrderStatus target = thread % 3 == 0 ? Order.OrderStatus.CANCELLED : Order.OrderStatus.CONFIRMED;
+            for (int i = thread; i < ORDERS; i += 2) {
+                try {
+                    orderService.updateOrderStatus(ids.get(i), target);
+                } catch (OptimisticLockingFailureException | InvalidStatusTransitionException e) {
+                    // lost the race, which the rollups must not count either
+                }
+            }
+            orderService.updateOrderStatuses(ids.subList(0, ORDERS / 2), Order.OrderStatus.PROCESSING);
+        });
+
+        OrderStats incremental = orderRollups.getStats(null, null);
+        orderRollups.rebuild();
+        OrderStats rebuilt = orderRollups.getStats(null, null);
+        assertEquals(20, rebuilds.get());
+        assertEquals(rebuilt.getTotal(), incremental.getTotal());
+        assertEquals(rebuilt.getByStatus(), incremental.getByStatus());
+        assertEquals(rebuilt.getByProduct(), incremental.getByProduct());
+        assertEquals(rebuilt.getByHour(), incremental.getByHour());
+        assertEquals(ORDERS, rebuilt.getByStatus().values().stream().mapToLong(OrderStats.Bucket::getOrders).sum());
+    }
+
+    @Test
+    void shouldCommitDuringRebuildScanAndCountItOnce() throws Exception {
+        Long id = orderRepository.save(order("scan@example.com")).getId();
+        orderRollups.rebuild();
+
+        // The first chunk the scan reads waits for a transition to commit on another thread,
+        // which a rebuild holding writers off for the whole scan would never let through.
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        AtomicBoolean committed = new AtomicBoolean();
+        Answer<?> repository = mockingDetails(orderRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            if (committed.compareAndSet(false, true)) {
+                writer.submit(() -> orderService.updateOrderStatus(id, Order.OrderStatus.CONFIRMED)).get(10, TimeUnit.SECONDS);
+            }
+            return repository.answer(invocation);
+        }).when(orderRepository).aggregateByIdBetween(any(), any());
+        try {
+            orderRollups.rebuild();
+        } finally {
+            writer.shutdown();
+        }
+
+        OrderStats stats = orderRollups.getStats(null, null);
+        assertTrue(committed.get());
+        assertEquals(0, stats.getByStatus().get(Order.OrderStatus.PENDING).getOrders());
+        assertEquals(1, stats.getByStatus().get(Order.OrderStatus.CONFIRMED).getOrders());
+        assertEquals(1, stats.getTotal().getOrders());
+    }
+
+    private void runConcurrently(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    private interface ThreadTask {
+        void run(int thread);
+    }
+
+    /**
+     * Saves an order whose stock reservation product-service has applied.
+     */
+    private Long reservedOrder(String email) {
+        Order order = orderRepository.save(order(email));
+        OutboxEvent reservation = OutboxEvent.stockReserved(order);
+        reservation.setStatus(OutboxEvent.Status.SENT);
+        outboxEventRepository.save(reservation);
+        return order.getId();
+    }
+
+    private int releases(Long orderId) {
+        return (int) outboxEventRepository.findByOrderIdOrderByIdAsc(orderId).stream()
+                .filter(event -> event.getEventType() == OutboxEvent.EventType.ORDER_CANCELLED)
+                .count();
+    }
+
+    private Order order(String email) {
+        return Order.builder()
+                .productId(1L)
+                .quantity(1)
+                .totalAmount(new BigDecimal("49.99"))
+                .customerEmail(email)
+                .customerName("Race Condition")
+                .build();
+    }
+}
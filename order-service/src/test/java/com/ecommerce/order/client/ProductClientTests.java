@@ -0,0 +1,148 @@
+package com.ecommerce.order.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductClientTests {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private ProductClient productClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/products/", exchange -> {
+            requests.incrementAndGet();
+            String id = exchange.getRequestURI().getPath().substring("/api/products/".length());
+            sleep(200);
+            if ("404".equals(id)) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = ("{\"id\":" + id + ",\"name\":\"Hot SKU\",\"price\":9.99,\"stock\":5,\"active\":true}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/api/products/lookup", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = ("{\"products\":[{\"id\":1,\"price\":1.50,\"stock\":5,\"active\":true},"
+                    + "{\"id\":2,\"price\":2.50,\"stock\":5,\"active\":true}],\"missingIds\":[3]}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/api/products/stock/adjustments", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = ("{\"results\":[{\"key\":\"order-1-order_created\",\"status\":\"APPLIED\"},"
+                    + "{\"key\":\"order-2-order_created\",\"status\":\"REJECTED\",\"message\":\"Insufficient stock for product: 2\"}]}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        WebClient webClient = WebClient.create("http://localhost:" + server.getAddress().getPort());
+        productClient = new ProductClient(webClient, Duration.ofSeconds(2), 100, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldCoalesceConcurrentLookupsForSameProduct() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(50);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ProductInfo>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return productClient.findProduct(7L).orElseThrow();
+            }));
+        }
+        start.countDown();
+        for (Future<ProductInfo> result : results) {
+            assertEquals(7L, result.get(5, TimeUnit.SECONDS).getId());
+        }
+        executor.shutdown();
+
+        assertEquals(1, requests.get());
+        productClient.findProduct(7L);
+        assertEquals(1, requests.get(), "second lookup within the TTL should be served from cache");
+    }
+
+    @Test
+    void shouldResolveSeveralProductsWithOneBulkLookup() {
+        Map<Long, ProductInfo> found = productClient.findProducts(List.of(1L, 2L, 3L, 1L));
+
+        assertEquals(2, found.size());
+        assertEquals(new BigDecimal("2.50"), found.get(2L).getPrice());
+        assertEquals(1, requests.get());
+
+        productClient.findProduct(1L);
+        assertEquals(1, requests.get(), "bulk results should populate the per-product cache");
+    }
+
+    @Test
+    void shouldNotCacheMissingProducts() {
+        assertTrue(productClient.findProduct(404L).isEmpty());
+        assertTrue(productClient.findProduct(404L).isEmpty());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void shouldReturnStockAdjustmentResultsByKey() {
+        Map<String, StockAdjustmentResult> results = productClient.adjustStock(List.of(
+                new StockAdjustment("order-1-order_created", 1L, -1),
+                new StockAdjustment("order-2-order_created", 2L, -9)));
+
+        assertTrue(results.get("order-1-order_created").isDelivered());
+        assertFalse(results.get("order-2-order_created").isDelivered());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void shouldReportUnreachableProductService() {
+        server.stop(0);
+        assertThrows(ProductServiceUnavailableException.class, () -> productClient.findProduct(1L));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.product.bulk;
+
+import com.ecommerce.product.dto.CatalogRow;
+import com.ecommerce.product.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the whole catalog, inactive products included, in the format
+ * {@link CatalogImporter} reads, straight from a database cursor.
+ */
+@Slf4j
+@Component
+public class CatalogExporter {
+
+    private final ProductService productService;
+    private final ObjectWriter csvWriter;
+    private final ObjectWriter ndjsonWriter;
+
+    public CatalogExporter(ProductService productService, ObjectMapper objectMapper) {
+        this.productService = productService;
+        CsvMapper csvMapper = new CsvMapper();
+        this.csvWriter = csvMapper.writerFor(CatalogRow.class)
+                .with(csvMapper.schemaFor(CatalogRow.class).withHeader())
+                .with(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.ndjsonWriter = objectMapper.writerFor(CatalogRow.class)
+                .withRootValueSeparator("\n")
+                .with(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Writes every product to {@code out}, which is flushed but left open.
+     *
+     * @return the number of products written
+     */
+    public long exportCatalog(OutputStream out, CatalogFormat format) throws IOException {
+        log.info("Exporting {} catalog", format);
+        long start = System.nanoTime();
+        long[] count = {0};
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        try (SequenceWriter writer = (format == CatalogFormat.CSV ? csvWriter : ndjsonWriter).writeValues(buffered)) {
+            productService.streamAllProducts(product -> {
+                try {
+                    writer.write(CatalogRow.of(product));
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (format == CatalogFormat.NDJSON && count[0] > 0) {
+            buffered.write('\n');
+        }
+        buffered.flush();
+
+        long elapsed = System.nanoTime() - start;
+        log.info("Exported {} catalog rows as {} in {} ms, {} rows/s", count[0], format,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), count[0] * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsed));
+        return count[0];
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.product.bulk;
+
+import com.ecommerce.product.dto.CatalogImportResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Command-line entry point for bulk catalog files: on startup, imports
+ * {@code catalog.import.file} and then writes {@code catalog.export.file}, whichever are
+ * set. The format follows the extension ({@code .csv} or {@code .ndjson}, optionally
+ * {@code .gz}). A file that cannot be read fails startup.
+ */
+@Slf4j
+@Component
+public class CatalogFileRunner implements ApplicationRunner {
+
+    private final CatalogImporter importer;
+    private final CatalogExporter exporter;
+    private final String importFile;
+    private final String exportFile;
+
+    public CatalogFileRunner(CatalogImporter importer,
+                             CatalogExporter exporter,
+                             @Value("${catalog.import.file:}") String importFile,
+                             @Value("${catalog.export.file:}") String exportFile) {
+        this.importer = importer;
+        this.exporter = exporter;
+        this.importFile = importFile;
+        this.exportFile = exportFile;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!importFile.isBlank()) {
+            Path path = Path.of(importFile);
+            CatalogImportResponse result;
+            try (InputStream in = open(path)) {
+                result = importer.importCatalog(in, CatalogFormat.forFileName(importFile));
+            }
+            if (result.getFailure() != null) {
+                throw new IllegalStateException("Catalog import from " + path + " failed: " + result.getFailure());
+            }
+            result.getErrors().forEach(error -> log.warn("Rejected catalog row {}: {}", error.getRow(), error.getMessage()));
+        }
+        if (!exportFile.isBlank()) {
+            Path path = Path.of(exportFile);
+            try (OutputStream out = create(path)) {
+                exporter.exportCatalog(out, CatalogFormat.forFileName(exportFile));
+            }
+        }
+    }
+
+    private static InputStream open(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), 64 * 1024);
+        return isGzip(path) ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    private static OutputStream create(Path path) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        return isGzip(path) ? new GZIPOutputStream(out, 64 * 1024) : out;
+    }
+
+    private static boolean isGzip(Path path) {
+        return path.getFileName().toString().endsWith(".gz");
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.product.bulk;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * File formats for bulk catalog import and export: CSV with a header row, or one JSON
+ * object per line.
+ */
+public enum CatalogFormat {
+
+    CSV(new MediaType("text", "csv"), ".csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON, ".ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    CatalogFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static CatalogFormat of(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    public static CatalogFormat forMediaType(MediaType mediaType) {
+        for (CatalogFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported catalog media type: " + mediaType);
+    }
+
+    /**
+     * Picks the format from a file name, ignoring a trailing {@code .gz}.
+     */
+    public static CatalogFormat forFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        for (CatalogFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported catalog file: " + fileName + " (expected .csv or .ndjson)");
+    }
+}
@@ -0,0 +1,223 @@
+package com.ecommerce.product.bulk;
+
+import com.ecommerce.product.dto.CatalogImportResponse;
+import com.ecommerce.product.dto.CatalogRow;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.service.ProductService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a CSV or NDJSON catalog file into the products table in chunks of
+ * {@code catalog.import.chunk-size} rows. Each chunk is validated on
+ * {@code catalog.import.parallelism} threads while the previous chunk is written, and is
+ * upserted by name in its own transaction, so memory stays bounded by two chunks
+ * whatever the file size.
+ */
+@Slf4j
+@Component
+public class CatalogImporter {
+
+    private final ProductService productService;
+    private final Validator validator;
+    private final ObjectReader csvReader;
+    private final ObjectReader ndjsonReader;
+    private final int chunkSize;
+    private final int parallelism;
+    private final int maxErrors;
+
+    public CatalogImporter(ProductService productService,
+                           Validator validator,
+                           ObjectMapper objectMapper,
+                           @Value("${catalog.import.chunk-size:5000}") int chunkSize,
+                           @Value("${catalog.import.parallelism:4}") int parallelism,
+                           @Value("${catalog.import.max-errors:100}") int maxErrors) {
+        this.productService = productService;
+        this.validator = validator;
+        this.csvReader = new CsvMapper()
+                .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .readerFor(CatalogRow.class)
+                .with(CsvSchema.emptySchema().withHeader());
+        this.ndjsonReader = objectMapper.readerFor(CatalogRow.class);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.maxErrors = maxErrors;
+    }
+
+    private record Record(long row, CatalogRow value) {
+    }
+
+    private record Validated(List<Product> products, List<CatalogImportResponse.RowError> errors) {
+    }
+
+    /**
+     * Running totals of one import.
+     */
+    private final class Progress {
+
+        private long rows;
+        private long inserted;
+        private long updated;
+        private long rejected;
+        private final List<CatalogImportResponse.RowError> errors = new ArrayList<>();
+        private boolean done;
+        private String failure;
+
+        void reject(CatalogImportResponse.RowError error) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            }
+        }
+    }
+
+    /**
+     * Imports every row of {@code in}. Invalid rows are rejected individually; a file that
+     * stops being parseable ends the import after the rows read so far are written.
+     */
+    public CatalogImportResponse importCatalog(InputStream in, CatalogFormat format) {
+        log.info("Importing {} catalog", format);
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try (MappingIterator<CatalogRow> rows = (format == CatalogFormat.CSV ? csvReader : ndjsonReader).readValues(in)) {
+            List<Future<Validated>> pending = null;
+            while (!progress.done) {
+                List<Record> chunk = readChunk(rows, progress, format);
+                List<Future<Validated>> next = chunk.isEmpty() ? null : validate(executor, chunk);
+                if (pending != null) {
+                    write(pending, progress);
+                }
+                pending = next;
+            }
+            if (pending != null) {
+                write(pending, progress);
+            }
+        } catch (IOException e) {
+            progress.failure = "Unreadable " + format + " catalog: " + e.getMessage();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long rowsPerSecond = progress.rows * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsed);
+        log.info("Imported {} catalog rows ({} inserted, {} updated, {} rejected) in {} ms, {} rows/s",
+                progress.rows, progress.inserted, progress.updated, progress.rejected,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), rowsPerSecond);
+        if (progress.failure != null) {
+            log.warn("Catalog import stopped: {}", progress.failure);
+        }
+        progress.errors.sort(Comparator.comparingLong(CatalogImportResponse.RowError::getRow));
+        return new CatalogImportResponse(progress.rows, progress.inserted, progress.updated, progress.rejected,
+                progress.errors, TimeUnit.NANOSECONDS.toMillis(elapsed), rowsPerSecond, progress.failure);
+    }
+
+    private List<Record> readChunk(MappingIterator<CatalogRow> rows, Progress progress, CatalogFormat format) {
+        List<Record> chunk = new ArrayList<>(chunkSize);
+        while (chunk.size() < chunkSize) {
+            try {
+                if (!rows.hasNextValue()) {
+                    progress.done = true;
+                    break;
+                }
+                long row = ++progress.rows;
+                try {
+                    chunk.add(new Record(row, rows.nextValue()));
+                } catch (JsonMappingException e) {
+                    // A bad value only spoils its own row; the iterator resumes at the next one
+                    progress.reject(new CatalogImportResponse.RowError(row, e.getOriginalMessage()));
+                }
+            } catch (IOException e) {
+                String message = e instanceof JsonProcessingException parse ? parse.getOriginalMessage() : e.getMessage();
+                progress.failure = "Unreadable " + format + " at row " + progress.rows + ": " + message;
+                progress.done = true;
+                break;
+            }
+        }
+        return chunk;
+    }
+
+    private List<Future<Validated>> validate(ExecutorService executor, List<Record> chunk) {
+        int sliceSize = (chunk.size() + parallelism - 1) / parallelism;
+        List<Future<Validated>> slices = new ArrayList<>(parallelism);
+        for (int from = 0; from < chunk.size(); from += sliceSize) {
+            List<Record> slice = chunk.subList(from, Math.min(from + sliceSize, chunk.size()));
+            slices.add(executor.submit(() -> validate(slice)));
+        }
+        return slices;
+    }
+
+    private Validated validate(List<Record> records) {
+        List<Product> products = new ArrayList<>(records.size());
+        List<CatalogImportResponse.RowError> errors = new ArrayList<>();
+        for (Record record : records) {
+            if (record.value() == null) {
+                errors.add(new CatalogImportResponse.RowError(record.row(), "Row is empty"));
+                continue;
+            }
+            Set<ConstraintViolation<CatalogRow>> violations = validator.validate(record.value());
+            if (violations.isEmpty()) {
+                products.add(record.value().toProduct());
+            } else {
+                errors.add(new CatalogImportResponse.RowError(record.row(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "))));
+            }
+        }
+        return new Validated(products, errors);
+    }
+
+    private void write(List<Future<Validated>> slices, Progress progress) {
+        List<Product> products = new ArrayList<>(chunkSize);
+        for (Future<Validated> slice : slices) {
+            Validated validated = get(slice);
+            products.addAll(validated.products());
+            validated.errors().forEach(progress::reject);
+        }
+        if (!products.isEmpty()) {
+            int inserted = productService.upsertByName(products);
+            progress.inserted += inserted;
+            progress.updated += products.size() - inserted;
+        }
+        log.debug("Catalog import at row {}: {} inserted, {} updated, {} rejected",
+                progress.rows, progress.inserted, progress.updated, progress.rejected);
+    }
+
+    private static Validated get(Future<Validated> slice) {
+        try {
+            return slice.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Catalog import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Catalog validation failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
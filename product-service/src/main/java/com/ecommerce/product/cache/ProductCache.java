@@ -0,0 +1,139 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for catalog reads. Entries are bounded by size and TTL and are
+ * invalidated after every committed product write, so readers never see a value older
+ * than the last commit for longer than the TTL.
+ */
+@Slf4j
+@Component
+public class ProductCache {
+
+    public enum ProductList {
+        ACTIVE,
+        IN_STOCK
+    }
+
+    private final boolean enabled;
+    private final Cache<Long, Product> byId;
+    private final Cache<String, List<Product>> byCategory;
+    private final Cache<ProductList, List<Product>> lists;
+
+    public ProductCache(@Value("${product.cache.enabled:true}") boolean enabled,
+                        @Value("${product.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${product.cache.ttl:5m}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // List caches are weighed by element count so one huge category cannot pin the heap
+        this.byCategory = Caffeine.newBuilder()
+                .maximumWeight(maximumSize)
+                .weigher((String key, List<Product> value) -> value.size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.lists = Caffeine.newBuilder()
+                .maximumWeight(maximumSize)
+                .weigher((ProductList key, List<Product> value) -> value.size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "products.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, byCategory, "products.byCategory");
+        CaffeineCacheMetrics.monitor(meterRegistry, lists, "products.lists");
+        log.info("Product cache enabled: {}, maximumSize: {}, ttl: {}", enabled, maximumSize, ttl);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<Product> getById(Long id, Function<Long, Optional<Product>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        // Misses are not cached: a null mapping result leaves the key absent
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Resolves many ids at once; all misses are handed to {@code loader} in a single call.
+     * Ids the loader does not return are absent from the result and are not cached.
+     */
+    public Map<Long, Product> getAllById(Collection<Long> ids, Function<Set<? extends Long>, Map<Long, Product>> loader) {
+        if (!enabled) {
+            return loader.apply(Set.copyOf(ids));
+        }
+        return byId.getAll(ids, loader);
+    }
+
+    public List<Product> getByCategory(String category, Function<String, List<Product>> loader) {
+        if (!enabled) {
+            return loader.apply(category);
+        }
+        return byCategory.get(normalize(category), key -> List.copyOf(loader.apply(category)));
+    }
+
+    public List<Product> getList(ProductList list, Supplier<List<Product>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return lists.get(list, key -> List.copyOf(loader.get()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProductId());
+        if (event.getPrevious() != null) {
+            evictCategory(event.getPrevious().getCategory());
+        }
+        evictCategory(event.getCurrent().getCategory());
+        lists.invalidateAll();
+    }
+
+    public void evict(Long id) {
+        byId.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        byId.invalidateAll();
+        byCategory.invalidateAll();
+        lists.invalidateAll();
+    }
+
+    private void evictCategory(String category) {
+        if (category != null) {
+            byCategory.invalidate(normalize(category));
+        }
+    }
+
+    private static String normalize(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+}
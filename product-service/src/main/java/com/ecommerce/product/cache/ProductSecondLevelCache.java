@@ -0,0 +1,38 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.model.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+
+/**
+ * Keeps Hibernate's second-level cache of products in step with the writes Hibernate does
+ * not see: stock adjustments and bulk imports go through JDBC. Each committed product write
+ * evicts that product, and writes that can change which products a cached query returns
+ * (new products, activation changes) also drop the cached query results.
+ * <p>
+ * A read that loaded the old row just before the commit can still store it afterwards, so
+ * like {@link ProductCache} an entry may lag a commit by up to its expiry.
+ */
+@Component
+public class ProductSecondLevelCache {
+
+    private final Cache cache;
+
+    public ProductSecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.evictEntityData(Product.class, event.getProductId());
+        Product previous = event.getPrevious();
+        if (previous == null || !Objects.equals(previous.getActive(), event.getCurrent().getActive())) {
+            cache.evictQueryRegions();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.product.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Sizes the Hikari pool from the CPUs the service may use: {@code cpus * db.pool.connections-per-cpu + 1}
+ * connections, but at least {@code db.pool.minimum-size}. The CPU count is {@code db.pool.cpus},
+ * set from the container's CPU limit, or else what the JVM detects, which also honours cgroup
+ * limits. An explicit {@code spring.datasource.hikari.maximum-pool-size} is left alone.
+ * The other service has the same class; CI fails if the two drift apart.
+ */
+@Slf4j
+@Configuration
+public class ConnectionPoolConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionPoolSizingPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // Runs after the spring.datasource.hikari properties are bound; an unset size reads as -1
+                if (bean instanceof HikariDataSource dataSource && dataSource.getMaximumPoolSize() < 1) {
+                    int configured = environment.getProperty("db.pool.cpus", Integer.class, 0);
+                    int cpus = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+                    int size = Math.max(environment.getProperty("db.pool.minimum-size", Integer.class, 10),
+                            cpus * environment.getProperty("db.pool.connections-per-cpu", Integer.class, 2) + 1);
+                    dataSource.setMaximumPoolSize(size);
+                    log.info("Sized connection pool to {} connections for {} CPUs", size, cpus);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,14 +1,32 @@
 package com.ecommerce.product.controller;
 
+import com.ecommerce.product.bulk.CatalogExporter;
+import com.ecommerce.product.bulk.CatalogFormat;
+import com.ecommerce.product.bulk.CatalogImporter;
+import com.ecommerce.product.dto.CatalogImportResponse;
+import com.ecommerce.product.dto.ProductFilter;
+import com.ecommerce.product.dto.ProductFilterResponse;
+import com.ecommerce.product.dto.ProductLookupRequest;
+import com.ecommerce.product.dto.ProductLookupResponse;
+import com.ecommerce.product.dto.StockAdjustmentRequest;
+import com.ecommerce.product.dto.StockAdjustmentResponse;
 import com.ecommerce.product.model.Product;
 import com.ecommerce.product.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 @Slf4j
 @RestController
@@ -17,16 +35,34 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class ProductController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final CatalogImporter catalogImporter;
+    private final CatalogExporter catalogExporter;
 
     @GetMapping
     public ResponseEntity<List<Product>> getAllProducts(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) Boolean inStock) {
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
 
+        // Combined criteria all apply; a single one keeps its cached path below
+        boolean onlyInStock = Boolean.TRUE.equals(inStock);
+        if ((name != null ? 1 : 0) + (category != null ? 1 : 0) + (onlyInStock ? 1 : 0) > 1) {
+            ProductFilter filter = ProductFilter.builder()
+                    .q(name)
+                    .category(category == null ? null : List.of(category))
+                    .inStock(onlyInStock ? true : null)
+                    .limit(limit)
+                    .build();
+            return ResponseEntity.ok(productService.filter(filter).getProducts());
+        }
         if (name != null) {
-            return ResponseEntity.ok(productService.searchByName(name));
+            return ResponseEntity.ok(productService.search(name, limit));
         }
         if (category != null) {
             return ResponseEntity.ok(productService.getByCategory(category));
@@ -34,9 +70,71 @@ public class ProductController {
         if (Boolean.TRUE.equals(inStock)) {
             return ResponseEntity.ok(productService.getInStockProducts());
         }
+        if (after != null || limit != null) {
+            List<Product> page = productService.getProductsPage(after, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (!page.isEmpty() && page.size() == ProductService.pageSize(limit)) {
+                response.header(NEXT_CURSOR_HEADER, String.valueOf(page.get(page.size() - 1).getId()));
+            }
+            return response.body(page);
+        }
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    /**
+     * Products matching all given criteria, sorted and limited, with facet counts per
+     * category and price bucket. A text query only finds active products, so combining it
+     * with {@code active=false} or {@code active=} is rejected.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFilterResponse> filterProducts(ProductFilter filter) {
+        if (filter.hasText() && !Boolean.TRUE.equals(filter.getActive())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.filter(filter));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            productService.streamProducts(product -> writeLine(out, product));
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Upserts products by name from a CSV or NDJSON body, optionally gzipped, read as it
+     * arrives. Returns 400 with the partial result if the body stops being parseable.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<CatalogImportResponse> importCatalog(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body) throws IOException {
+        CatalogFormat format = CatalogFormat.forMediaType(MediaType.parseMediaType(contentType));
+        InputStream in = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, 64 * 1024) : body;
+        CatalogImportResponse result = catalogImporter.importCatalog(in, format);
+        return result.getFailure() == null ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCatalog(@RequestParam(defaultValue = "ndjson") String format) {
+        CatalogFormat catalogFormat;
+        try {
+            catalogFormat = CatalogFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = outputStream -> catalogExporter.exportCatalog(outputStream, catalogFormat);
+        return ResponseEntity.ok()
+                .contentType(catalogFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("catalog" + catalogFormat.getExtension()).build().toString())
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
         return productService.getProductById(id)
@@ -44,6 +142,11 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/lookup")
+    public ResponseEntity<ProductLookupResponse> lookupProducts(@Valid @RequestBody ProductLookupRequest request) {
+        return ResponseEntity.ok(productService.lookupProducts(request.getIds()));
+    }
+
     @PostMapping
     public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
         Product created = productService.createProduct(product);
@@ -82,8 +185,23 @@ public class ProductController {
         }
     }
 
+    @PostMapping("/stock/adjustments")
+    public ResponseEntity<StockAdjustmentResponse> applyStockAdjustments(
+            @Valid @RequestBody StockAdjustmentRequest request) {
+        return ResponseEntity.ok(productService.applyStockAdjustments(request.getAdjustments()));
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Product Service is UP");
     }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
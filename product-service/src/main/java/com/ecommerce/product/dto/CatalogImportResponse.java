@@ -0,0 +1,45 @@
+package com.ecommerce.product.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk catalog import. Rows are committed chunk by chunk, so when
+ * {@code failure} is set the counts describe what was imported before the file became
+ * unreadable. Only the first rejected rows are listed in {@code errors}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImportResponse {
+
+    private long rows;
+
+    private long inserted;
+
+    private long updated;
+
+    private long rejected;
+
+    private List<RowError> errors;
+
+    private long elapsedMs;
+
+    private long rowsPerSecond;
+
+    private String failure;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        /**
+         * 1-based position of the record in the file, not counting a CSV header.
+         */
+        private long row;
+
+        private String message;
+    }
+}
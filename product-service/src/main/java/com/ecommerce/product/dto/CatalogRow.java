@@ -0,0 +1,58 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.model.Product;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * One product in a bulk catalog file, as a CSV record or an NDJSON line. Products are
+ * identified by name, so the same file can be imported again to update them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"name", "description", "price", "stock", "category", "active"})
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CatalogRow {
+
+    @NotBlank(message = "Product name is required")
+    @Size(max = 255, message = "Product name must be at most 255 characters")
+    private String name;
+
+    @Size(max = 1000, message = "Description must be at most 1000 characters")
+    private String description;
+
+    @NotNull(message = "Price is required")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than 0")
+    private BigDecimal price;
+
+    @NotNull(message = "Stock is required")
+    @Min(value = 0, message = "Stock cannot be negative")
+    private Integer stock;
+
+    @NotBlank(message = "Category is required")
+    @Size(max = 255, message = "Category must be at most 255 characters")
+    private String category;
+
+    private Boolean active;
+
+    public static CatalogRow of(Product product) {
+        return new CatalogRow(product.getName(), product.getDescription(), product.getPrice(),
+                product.getStock(), product.getCategory(), product.getActive());
+    }
+
+    public Product toProduct() {
+        return Product.builder()
+                .name(name.strip())
+                .description(description)
+                .price(price)
+                .stock(stock)
+                .category(category.strip())
+                .active(active == null || active)
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.product.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Product counts per category and per price bucket. Each facet applies every criterion of
+ * the filter except its own, so the counts show what selecting another value would return.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetCounts {
+
+    // Most products first
+    private Map<String, Long> categories;
+
+    private List<PriceBucket> prices;
+
+    /**
+     * Products priced from {@code from} (inclusive) up to {@code to} (exclusive, open if null).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucket {
+
+        private BigDecimal from;
+
+        private BigDecimal to;
+
+        private long count;
+    }
+}
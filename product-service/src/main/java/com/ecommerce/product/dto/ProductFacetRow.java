@@ -0,0 +1,23 @@
+package com.ecommerce.product.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Number of products sharing a category, price, active flag and in-stock flag. Building
+ * the facet counts merges these rows instead of loading products.
+ */
+@Value
+public class ProductFacetRow {
+
+    String category;
+
+    BigDecimal price;
+
+    Boolean active;
+
+    Boolean inStock;
+
+    Long products;
+}
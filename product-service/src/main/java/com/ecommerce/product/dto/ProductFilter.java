@@ -0,0 +1,103 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.model.Product;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Query parameters of {@code GET /api/products/filter}. Every given criterion applies;
+ * {@code category} may repeat and matches any of its values, ignoring case.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFilter {
+
+    // Free text, matched through the search index
+    private String q;
+
+    private List<String> category;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    private Boolean inStock;
+
+    @Builder.Default
+    private Boolean active = true;
+
+    private Sort sort;
+
+    private Integer limit;
+
+    public enum Sort {
+        RELEVANCE(null),
+        PRICE_ASC(Comparator.comparing(Product::getPrice)),
+        PRICE_DESC(Comparator.comparing(Product::getPrice).reversed()),
+        NAME(Comparator.comparing(Product::getName, String.CASE_INSENSITIVE_ORDER)),
+        NEWEST(Comparator.comparing(Product::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))),
+        ID(Comparator.comparing(Product::getId));
+
+        private final Comparator<Product> comparator;
+
+        Sort(Comparator<Product> comparator) {
+            this.comparator = comparator;
+        }
+
+        /**
+         * Order of the results, ties broken by id; {@code null} keeps relevance order.
+         */
+        public Comparator<Product> comparator() {
+            return comparator == null ? null : comparator.thenComparing(Product::getId);
+        }
+    }
+
+    /**
+     * Requested categories, lower-cased like the {@code category_key} column.
+     */
+    public Set<String> categoryKeys() {
+        if (category == null) {
+            return Set.of();
+        }
+        return category.stream()
+                .filter(value -> value != null && !value.isBlank())
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+    }
+
+    public boolean hasText() {
+        return q != null && !q.isBlank();
+    }
+
+    public boolean matches(Product product) {
+        return matchesCategory(product.getCategory()) && matchesPrice(product.getPrice()) && matchesState(product);
+    }
+
+    public boolean matchesCategory(String productCategory) {
+        Set<String> keys = categoryKeys();
+        return keys.isEmpty() || (productCategory != null && keys.contains(productCategory.toLowerCase(Locale.ROOT)));
+    }
+
+    public boolean matchesPrice(BigDecimal price) {
+        return (minPrice == null || price.compareTo(minPrice) >= 0) && (maxPrice == null || price.compareTo(maxPrice) <= 0);
+    }
+
+    /**
+     * The active and in-stock criteria.
+     */
+    public boolean matchesState(Product product) {
+        return matchesState(Boolean.TRUE.equals(product.getActive()), product.getStock() != null && product.getStock() > 0);
+    }
+
+    public boolean matchesState(boolean productActive, boolean productInStock) {
+        return (active == null || active == productActive) && (inStock == null || inStock == productInStock);
+    }
+}
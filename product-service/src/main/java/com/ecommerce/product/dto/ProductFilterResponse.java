@@ -0,0 +1,19 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.model.Product;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of filtered products with the facet counts of the whole filter.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterResponse {
+
+    private List<Product> products;
+
+    private ProductFacetCounts facets;
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.product.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductLookupRequest {
+
+    @NotEmpty(message = "At least one id is required")
+    @Size(max = 5000, message = "At most 5000 ids can be looked up at once")
+    private List<Long> ids;
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.model.Product;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Products found for a bulk lookup, in the order their ids were requested, plus the
+ * requested ids that do not exist.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductLookupResponse {
+
+    private List<Product> products;
+
+    private List<Long> missingIds;
+}
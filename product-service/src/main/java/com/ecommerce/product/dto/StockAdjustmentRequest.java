@@ -0,0 +1,37 @@
+package com.ecommerce.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentRequest {
+
+    @NotEmpty(message = "At least one adjustment is required")
+    @Size(max = 1000, message = "At most 1000 adjustments can be applied at once")
+    private List<@Valid Item> adjustments;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        /** Caller-chosen key; an adjustment is applied at most once per key. */
+        @NotBlank(message = "Dedup key is required")
+        @Size(max = 100, message = "Dedup key must be at most 100 characters")
+        private String key;
+
+        @NotNull(message = "Product ID is required")
+        private Long productId;
+
+        @NotNull(message = "Quantity is required")
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.product.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Per-item outcome of a bulk stock adjustment, in request order. {@code DUPLICATE} means
+ * the key was already applied earlier, so the caller can treat it like {@code APPLIED}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentResponse {
+
+    private List<Result> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+
+        private String key;
+
+        private Status status;
+
+        private String message;
+    }
+
+    public enum Status {
+        APPLIED,
+        DUPLICATE,
+        REJECTED
+    }
+}
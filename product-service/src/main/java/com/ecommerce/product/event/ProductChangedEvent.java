@@ -0,0 +1,22 @@
+package com.ecommerce.product.event;
+
+import com.ecommerce.product.model.Product;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by {@code ProductService} whenever a product is written.
+ * Listeners receive detached snapshots of the product before and after the change;
+ * {@code previous} is {@code null} for newly created products.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductChangedEvent {
+
+    private final Product previous;
+    private final Product current;
+
+    public Long getProductId() {
+        return current.getId();
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.product.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records JDBC statement timings reported by {@link InstrumentedDataSource} and the number
+ * of statements each HTTP request runs. Slow statements and requests running more
+ * statements than expected, usually an N+1 pattern, are logged as warnings.
+ */
+@Slf4j
+@Component
+public class QueryMetrics {
+
+    private static final int MAX_LOGGED_SQL_LENGTH = 500;
+
+    private final MeterRegistry meterRegistry;
+    private final long slowQueryNanos;
+    private final int maxQueriesPerRequest;
+    private final Counter slowQueries;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ThreadLocal<RequestQueries> currentRequest = new ThreadLocal<>();
+
+    public QueryMetrics(MeterRegistry meterRegistry,
+                        @Value("${metrics.db.slow-query-threshold:200ms}") Duration slowQueryThreshold,
+                        @Value("${metrics.db.max-queries-per-request:20}") int maxQueriesPerRequest) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryNanos = slowQueryThreshold.toNanos();
+        this.maxQueriesPerRequest = maxQueriesPerRequest;
+        this.slowQueries = Counter.builder("db.queries.slow")
+                .description("Statements slower than metrics.db.slow-query-threshold")
+                .register(meterRegistry);
+    }
+
+    void record(String sql, long nanos) {
+        timers.computeIfAbsent(operation(sql), operation -> Timer.builder("db.queries")
+                        .description("JDBC statement execution time")
+                        .tag("operation", operation)
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+
+        RequestQueries request = currentRequest.get();
+        if (request != null) {
+            request.count++;
+            request.nanos += nanos;
+        }
+        if (nanos >= slowQueryNanos) {
+            slowQueries.increment();
+            log.warn("Slow query took {} ms: {}", TimeUnit.NANOSECONDS.toMillis(nanos), abbreviate(sql));
+        }
+    }
+
+    public void beginRequest() {
+        currentRequest.set(new RequestQueries());
+    }
+
+    public void endRequest(String method, String uri) {
+        RequestQueries request = currentRequest.get();
+        currentRequest.remove();
+        if (request == null) {
+            return;
+        }
+        DistributionSummary.builder("http.server.requests.queries")
+                .description("JDBC statements run per request")
+                .tags("method", method, "uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(request.count);
+        Timer.builder("http.server.requests.query.time")
+                .description("Time spent in JDBC statements per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(request.nanos, TimeUnit.NANOSECONDS);
+        if (request.count > maxQueriesPerRequest) {
+            log.warn("{} {} ran {} queries in {} ms; possible N+1", method, uri, request.count,
+                    TimeUnit.NANOSECONDS.toMillis(request.nanos));
+        }
+    }
+
+    private static String operation(String sql) {
+        if (sql == null) {
+            return "other";
+        }
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String keyword = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "insert", "update", "delete", "merge" -> keyword;
+            default -> "other";
+        };
+    }
+
+    private static String abbreviate(String sql) {
+        if (sql == null) {
+            return "<batch>";
+        }
+        return sql.length() <= MAX_LOGGED_SQL_LENGTH ? sql : sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+
+    private static final class RequestQueries {
+        private int count;
+        private long nanos;
+    }
+}
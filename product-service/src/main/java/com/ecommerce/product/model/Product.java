@@ -1,17 +1,29 @@
 package com.ecommerce.product.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+// Second-level cached by id; JDBC writes evict through ProductSecondLevelCache
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_name_key", columnList = "name_key"),
+        // Filtered lists narrow by category, then by price range
+        @Index(name = "idx_products_category_key_price", columnList = "category_key, price"),
+        @Index(name = "idx_products_price", columnList = "price")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Product {
 
     @Id
@@ -22,6 +34,12 @@ public class Product {
     @NotBlank(message = "Product name is required")
     private String name;
 
+    // Lower-cased name kept by the database, so name lookups ignoring case can use an index
+    @JsonIgnore
+    @Column(name = "name_key", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(name))")
+    private String nameKey;
+
     @Column(length = 1000)
     private String description;
 
@@ -38,6 +56,12 @@ public class Product {
     @Column(nullable = false)
     private String category;
 
+    // Lower-cased category, indexed like name_key so category filters ignore case
+    @JsonIgnore
+    @Column(name = "category_key", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(category))")
+    private String categoryKey;
+
     @Builder.Default
     @Column(nullable = false)
     private Boolean active = true;
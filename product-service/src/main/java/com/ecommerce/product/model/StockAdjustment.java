@@ -0,0 +1,32 @@
+package com.ecommerce.product.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ledger of stock adjustments applied through the bulk endpoint, keyed by the caller's
+ * dedup key, so a redelivered adjustment is recognised and not applied twice.
+ */
+@Entity
+@Table(name = "stock_adjustments")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAdjustment {
+
+    @Id
+    @Column(length = 100)
+    private String dedupKey;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private LocalDateTime appliedAt;
+}
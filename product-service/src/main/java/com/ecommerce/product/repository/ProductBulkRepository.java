@@ -0,0 +1,112 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Set-based product writes for bulk imports and stock adjustments, in plain JDBC so
+ * thousands of rows cost a few statements rather than an entity and a round-trip each. Names are matched through
+ * the indexed {@code name_key} column, i.e. ignoring case like
+ * {@link ProductRepository#existsByNameIgnoreCase}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductBulkRepository {
+
+    private static final int MERGE_STATEMENT_ROWS = 1000;
+
+    private static final String COLUMNS =
+            "id, name, name_key, description, price, stock, category, active, created_at, updated_at";
+
+    private static final String SELECT_BY_NAME_KEYS_SQL =
+            "SELECT " + COLUMNS + " FROM products WHERE name_key = ANY(?)";
+
+    private static final String MERGE_SQL_PREFIX = "SELECT " + COLUMNS + " FROM FINAL TABLE (MERGE INTO products p USING (VALUES ";
+
+    private static final String MERGE_SQL_ROW = "(CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(1000)), CAST(? AS NUMERIC(38, 2)), "
+            + "CAST(? AS INTEGER), CAST(? AS VARCHAR(255)), CAST(? AS BOOLEAN), CAST(? AS TIMESTAMP))";
+
+    private static final String MERGE_SQL_SUFFIX = """
+            ) AS s(name, description, price, stock, category, active, changed_at)
+            ON p.name_key = LOWER(s.name)
+            WHEN MATCHED THEN UPDATE SET name = s.name, description = s.description, price = s.price,
+                stock = s.stock, category = s.category, active = s.active, updated_at = s.changed_at
+            WHEN NOT MATCHED THEN INSERT (name, description, price, stock, category, active, created_at)
+                VALUES (s.name, s.description, s.price, s.stock, s.category, s.active, s.changed_at))
+            """;
+
+    private static final String ADJUST_STOCK_SQL =
+            "UPDATE products SET stock = stock + ?, updated_at = ? WHERE id = ? AND stock + ? >= 0";
+
+    private static final RowMapper<Product> PRODUCT_ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return Product.builder()
+                .id(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .nameKey(rs.getString("name_key"))
+                .description(rs.getString("description"))
+                .price(rs.getBigDecimal("price"))
+                .stock(rs.getInt("stock"))
+                .category(rs.getString("category"))
+                .active(rs.getBoolean("active"))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .updatedAt(updatedAt == null ? null : updatedAt.toLocalDateTime())
+                .build();
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies a stock delta as a single conditional UPDATE so concurrent adjustments
+     * never lose updates and never drive stock below zero. Unlike a JPQL bulk update, it
+     * leaves the rest of the Product second-level cache region in place; the changed
+     * product is evicted once the write commits.
+     *
+     * @return the number of rows updated: 0 if the product is missing or stock is insufficient
+     */
+    public int adjustStock(Long id, int quantity, LocalDateTime updatedAt) {
+        return jdbcTemplate.update(ADJUST_STOCK_SQL, quantity, Timestamp.valueOf(updatedAt), id, quantity);
+    }
+
+    public List<Product> findByNameKeys(Collection<String> nameKeys) {
+        return jdbcTemplate.query(SELECT_BY_NAME_KEYS_SQL, PRODUCT_ROW_MAPPER, (Object) nameKeys.toArray(String[]::new));
+    }
+
+    /**
+     * Inserts each product whose name is new and updates the others, using one MERGE per
+     * {@value #MERGE_STATEMENT_ROWS} products. Names must be distinct ignoring case.
+     *
+     * @return the products as written, with their ids
+     */
+    public List<Product> upsertByName(List<Product> products, LocalDateTime now) {
+        Timestamp changedAt = Timestamp.valueOf(now);
+        List<Product> written = new ArrayList<>(products.size());
+        for (int from = 0; from < products.size(); from += MERGE_STATEMENT_ROWS) {
+            List<Product> batch = products.subList(from, Math.min(from + MERGE_STATEMENT_ROWS, products.size()));
+            Object[] args = new Object[batch.size() * 7];
+            int i = 0;
+            for (Product product : batch) {
+                args[i++] = product.getName();
+                args[i++] = product.getDescription();
+                args[i++] = product.getPrice();
+                args[i++] = product.getStock();
+                args[i++] = product.getCategory();
+                args[i++] = product.getActive() == null || product.getActive();
+                args[i++] = changedAt;
+            }
+            String sql = MERGE_SQL_PREFIX + String.join(", ", Collections.nCopies(batch.size(), MERGE_SQL_ROW)) + MERGE_SQL_SUFFIX;
+            written.addAll(jdbcTemplate.query(sql, PRODUCT_ROW_MAPPER, args));
+        }
+        return written;
+    }
+}
@@ -1,23 +1,62 @@
 package com.ecommerce.product.repository;
 
+import com.ecommerce.product.dto.ProductFacetRow;
 import com.ecommerce.product.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
-    List<Product> findByNameContainingIgnoreCase(String name);
-
-    List<Product> findByCategoryIgnoreCase(String category);
+    @Query("SELECT p FROM Product p WHERE p.categoryKey = LOWER(:category)")
+    List<Product> findByCategoryIgnoreCase(@Param("category") String category);
 
     List<Product> findByActiveTrue();
 
     @Query("SELECT p FROM Product p WHERE p.stock > 0 AND p.active = true")
     List<Product> findAllInStock();
 
-    boolean existsByNameIgnoreCase(String name);
+    // Cached by Hibernate until a product write commits; its rows come from the second-level cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Product> findByActiveTrueAndIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Product p WHERE p.active = true ORDER BY p.id")
+    Stream<Product> streamActive();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAll();
+
+    @Query("SELECT new com.ecommerce.product.dto.ProductFacetRow(p.category, p.price, p.active, "
+            + "CASE WHEN p.stock > 0 THEN true ELSE false END, COUNT(p)) FROM Product p "
+            + "GROUP BY p.category, p.price, p.active, CASE WHEN p.stock > 0 THEN true ELSE false END")
+    List<ProductFacetRow> countFacets();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COUNT(p) > 0 FROM Product p WHERE p.nameKey = LOWER(:name)")
+    boolean existsByNameIgnoreCase(@Param("name") String name);
+
+    /**
+     * Loads products from the table, refreshing their second-level cache entries, for
+     * writes that must start from committed state, such as after a JDBC stock adjustment.
+     */
+    @QueryHints({
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"),
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "REFRESH")
+    })
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findAllByIdUncached(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,211 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.dto.ProductFacetCounts;
+import com.ecommerce.product.dto.ProductFacetRow;
+import com.ecommerce.product.dto.ProductFilter;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Product counts per category, price bucket, active flag and in-stock flag, kept in memory
+ * so facet counts cost a pass over the categories instead of a catalog scan. Built on
+ * startup from one grouped query and then maintained from committed product writes.
+ * <p>
+ * Price buckets are bounded by {@code catalog.facets.price-buckets}. A price range in the
+ * filter is applied to the category counts per bucket, so they are exact for ranges on
+ * bucket bounds and count whole buckets otherwise.
+ */
+@Slf4j
+@Component
+public class ProductFacets {
+
+    private static final int STATES = 4;
+
+    private final ProductRepository productRepository;
+    private final BigDecimal[] bounds;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Cube cube;
+
+    public ProductFacets(ProductRepository productRepository,
+                         @Value("${catalog.facets.price-buckets:10,25,50,100,250,500,1000}") List<BigDecimal> bounds) {
+        this.productRepository = productRepository;
+        this.bounds = bounds.stream().sorted().distinct().toArray(BigDecimal[]::new);
+        this.cube = new Cube(this.bounds);
+    }
+
+    /**
+     * Replaces the counts with a fresh grouped query. The write lock is held from the query to
+     * the swap, so changes committed meanwhile wait and are applied to the new cube instead of
+     * the one being replaced.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            List<ProductFacetRow> rows = productRepository.countFacets();
+            Cube rebuilt = new Cube(bounds);
+            for (ProductFacetRow row : rows) {
+                rebuilt.add(row.getCategory(), row.getPrice(), Boolean.TRUE.equals(row.getActive()),
+                        Boolean.TRUE.equals(row.getInStock()), row.getProducts());
+            }
+            cube = rebuilt;
+            log.info("Built product facets: {} categories from {} rows in {} ms",
+                    rebuilt.categories.size(), rows.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.getPrevious() != null) {
+                cube.add(event.getPrevious(), -1);
+            }
+            cube.add(event.getCurrent(), 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Facet counts of the whole catalog under {@code filter}; its text query is ignored.
+     */
+    public ProductFacetCounts count(ProductFilter filter) {
+        lock.readLock().lock();
+        try {
+            return cube.count(filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Facet counts of {@code products} under {@code filter}, for results the cube does not
+     * cover such as text search candidates.
+     */
+    public ProductFacetCounts count(ProductFilter filter, Collection<Product> products) {
+        Cube candidates = new Cube(bounds);
+        products.forEach(product -> candidates.add(product, 1));
+        return candidates.count(filter);
+    }
+
+    private static final class Cube {
+
+        private final BigDecimal[] bounds;
+        private final Map<String, Counts> categories = new HashMap<>();
+
+        Cube(BigDecimal[] bounds) {
+            this.bounds = bounds;
+        }
+
+        void add(Product product, long sign) {
+            add(product.getCategory(), product.getPrice(), Boolean.TRUE.equals(product.getActive()),
+                    product.getStock() != null && product.getStock() > 0, sign);
+        }
+
+        void add(String category, BigDecimal price, boolean active, boolean inStock, long delta) {
+            if (category == null || price == null) {
+                return;
+            }
+            String key = category.toLowerCase(Locale.ROOT);
+            Counts counts = categories.computeIfAbsent(key, k -> new Counts(category, bounds.length + 1));
+            counts.cells[bucket(price) * STATES + state(active, inStock)] += delta;
+            counts.total += delta;
+            if (counts.total <= 0) {
+                categories.remove(key);
+            }
+        }
+
+        ProductFacetCounts count(ProductFilter filter) {
+            Set<String> categoryKeys = filter.categoryKeys();
+            boolean[] states = new boolean[STATES];
+            for (int state = 0; state < STATES; state++) {
+                states[state] = filter.matchesState((state & 2) != 0, (state & 1) != 0);
+            }
+            boolean[] inRange = new boolean[bounds.length + 1];
+            for (int bucket = 0; bucket < inRange.length; bucket++) {
+                BigDecimal from = bucket == 0 ? null : bounds[bucket - 1];
+                BigDecimal to = bucket == bounds.length ? null : bounds[bucket];
+                inRange[bucket] = (filter.getMaxPrice() == null || from == null || from.compareTo(filter.getMaxPrice()) <= 0)
+                        && (filter.getMinPrice() == null || to == null || to.compareTo(filter.getMinPrice()) > 0);
+            }
+
+            List<Map.Entry<String, Long>> byCategory = new ArrayList<>();
+            long[] byBucket = new long[bounds.length + 1];
+            categories.forEach((key, counts) -> {
+                boolean selected = categoryKeys.isEmpty() || categoryKeys.contains(key);
+                long inCategory = 0;
+                for (int bucket = 0; bucket < byBucket.length; bucket++) {
+                    for (int state = 0; state < STATES; state++) {
+                        if (!states[state]) {
+                            continue;
+                        }
+                        long cell = counts.cells[bucket * STATES + state];
+                        if (inRange[bucket]) {
+                            inCategory += cell;
+                        }
+                        if (selected) {
+                            byBucket[bucket] += cell;
+                        }
+                    }
+                }
+                if (inCategory > 0) {
+                    byCategory.add(Map.entry(counts.label, inCategory));
+                }
+            });
+
+            byCategory.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            Map<String, Long> categoryCounts = new LinkedHashMap<>();
+            byCategory.forEach(entry -> categoryCounts.put(entry.getKey(), entry.getValue()));
+            List<ProductFacetCounts.PriceBucket> prices = new ArrayList<>(byBucket.length);
+            for (int bucket = 0; bucket < byBucket.length; bucket++) {
+                prices.add(new ProductFacetCounts.PriceBucket(
+                        bucket == 0 ? BigDecimal.ZERO : bounds[bucket - 1],
+                        bucket == bounds.length ? null : bounds[bucket],
+                        byBucket[bucket]));
+            }
+            return new ProductFacetCounts(categoryCounts, prices);
+        }
+
+        private int bucket(BigDecimal price) {
+            int index = Arrays.binarySearch(bounds, price);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        private static int state(boolean active, boolean inStock) {
+            return (active ? 2 : 0) | (inStock ? 1 : 0);
+        }
+    }
+
+    /**
+     * Cells of one category, indexed by price bucket and state; the label is the spelling
+     * first seen for the category.
+     */
+    private static final class Counts {
+
+        private final String label;
+        private final long[] cells;
+        private long total;
+
+        Counts(String label, int buckets) {
+            this.label = label;
+            this.cells = new long[buckets * STATES];
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over the name, category and description of active products.
+ * <p>
+ * Each token maps to a compact posting list of product ids with a field-weighted score.
+ * Query terms match tokens exactly, by prefix, and, when a term has no exact or prefix
+ * hit, within one edit. Results are ranked by the summed score; every term must match.
+ * The index is built on startup and then maintained from committed product writes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final float EXACT_BOOST = 1f;
+    private static final float PREFIX_BOOST = 0.6f;
+    private static final float FUZZY_BOOST = 0.4f;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_FUZZY_TERM_LENGTH = 4;
+    private static final int REBUILD_CLEAR_INTERVAL = 1000;
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            AtomicInteger count = new AtomicInteger();
+            productRepository.streamActive().forEach(product -> {
+                addDocument(product);
+                if (count.incrementAndGet() % REBUILD_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            });
+            log.info("Built product search index: {} products, {} tokens in {} ms",
+                    count.get(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.getCurrent();
+        if (Boolean.TRUE.equals(product.getActive())) {
+            index(product);
+        } else {
+            remove(product.getId());
+        }
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            addDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the best matching products, highest score first.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<TermMatch> matches = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                TermMatch match = match(term);
+                if (match.lists.isEmpty()) {
+                    return List.of();
+                }
+                matches.add(match);
+            }
+            // Drive from the most selective term and score the others per candidate document,
+            // so a common token such as a category name never has its postings materialized
+            matches.sort(Comparator.comparingLong(TermMatch::cost));
+            TermMatch driver = matches.get(0);
+            List<TermMatch> others = matches.subList(1, matches.size());
+
+            PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1);
+            if (driver.lists.size() == 1) {
+                PostingList list = driver.lists.get(0);
+                float boost = driver.boosts.get(0);
+                for (int i = 0; i < list.size; i++) {
+                    offer(heap, limit, list.ids[i], list.weights[i] * boost, others);
+                }
+            } else {
+                Map<Long, Float> scores = new HashMap<>();
+                for (int l = 0; l < driver.lists.size(); l++) {
+                    driver.lists.get(l).accumulate(scores, driver.boosts.get(l));
+                }
+                scores.forEach((id, score) -> offer(heap, limit, id, score, others));
+            }
+            Long[] ids = new Long[heap.size()];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                ids[i] = heap.poll().id;
+            }
+            return Arrays.asList(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private TermMatch match(String term) {
+        TermMatch match = new TermMatch();
+        PostingList exact = postings.get(term);
+        if (exact != null) {
+            match.add(term, exact, EXACT_BOOST);
+        }
+        int expansions = 0;
+        for (Map.Entry<String, PostingList> entry : postings.subMap(term, false, term + Character.MAX_VALUE, false).entrySet()) {
+            if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            match.add(entry.getKey(), entry.getValue(), PREFIX_BOOST);
+        }
+        if (match.lists.isEmpty() && term.length() >= MIN_FUZZY_TERM_LENGTH) {
+            // Typos rarely hit the first character, which keeps the candidate range small
+            String first = term.substring(0, 1);
+            for (Map.Entry<String, PostingList> entry : postings.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+                if (withinOneEdit(term, entry.getKey())) {
+                    match.add(entry.getKey(), entry.getValue(), FUZZY_BOOST);
+                }
+            }
+        }
+        return match;
+    }
+
+    private void offer(PriorityQueue<Hit> heap, int limit, long id, float score, List<TermMatch> others) {
+        if (!others.isEmpty()) {
+            Document document = documents.get(id);
+            for (TermMatch other : others) {
+                float termScore = document.score(other);
+                if (termScore == 0f) {
+                    return;
+                }
+                score += termScore;
+            }
+        }
+        heap.offer(new Hit(id, score));
+        if (heap.size() > limit) {
+            heap.poll();
+        }
+    }
+
+    private void addDocument(Product product) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME_WEIGHT);
+        addField(weights, product.getCategory(), CATEGORY_WEIGHT);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+        Document document = new Document(weights.size());
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new PostingList()).add(product.getId(), entry.getValue());
+            document.add(entry.getKey(), entry.getValue());
+        }
+        documents.put(product.getId(), document);
+    }
+
+    private void removeDocument(Long productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String token : document.tokens) {
+            PostingList list = postings.get(token);
+            if (list != null && list.remove(productId) && list.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDiff = a.length() - b.length();
+        if (Math.abs(lengthDiff) > 1) {
+            return false;
+        }
+        String shorter = lengthDiff <= 0 ? a : b;
+        String longer = lengthDiff <= 0 ? b : a;
+        int i = 0;
+        int j = 0;
+        boolean edited = false;
+        while (i < shorter.length() && j < longer.length()) {
+            if (shorter.charAt(i) != longer.charAt(j)) {
+                if (edited) {
+                    return false;
+                }
+                edited = true;
+                if (shorter.length() == longer.length()) {
+                    i++;
+                }
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return true;
+    }
+
+    private record Hit(long id, float score) implements Comparable<Hit> {
+
+        // Min-heap order: the weakest hit (lowest score, then highest id) is evicted first
+        @Override
+        public int compareTo(Hit other) {
+            int byScore = Float.compare(score, other.score);
+            return byScore != 0 ? byScore : Long.compare(other.id, id);
+        }
+    }
+
+    /**
+     * Posting lists a query term expands to, with the boost each contributes, also keyed by
+     * token so candidate documents are scored against exactly the tokens that matched.
+     */
+    private static final class TermMatch {
+
+        private final List<PostingList> lists = new ArrayList<>();
+        private final List<Float> boosts = new ArrayList<>();
+        private final Map<String, Float> boostsByToken = new HashMap<>();
+        private long cost;
+
+        void add(String token, PostingList list, float boost) {
+            lists.add(list);
+            boosts.add(boost);
+            boostsByToken.put(token, boost);
+            cost += list.size;
+        }
+
+        long cost() {
+            return cost;
+        }
+    }
+
+    /**
+     * Forward entry of one product: its distinct tokens and their field-weighted scores.
+     */
+    private static final class Document {
+
+        private final String[] tokens;
+        private final float[] weights;
+        private int size;
+
+        Document(int capacity) {
+            tokens = new String[capacity];
+            weights = new float[capacity];
+        }
+
+        void add(String token, float weight) {
+            tokens[size] = token;
+            weights[size] = weight;
+            size++;
+        }
+
+        /**
+         * Scores this document against the tokens a term matched, as its postings would.
+         */
+        float score(TermMatch match) {
+            float score = 0f;
+            for (int i = 0; i < size; i++) {
+                Float boost = match.boostsByToken.get(tokens[i]);
+                if (boost != null) {
+                    score += weights[i] * boost;
+                }
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Array-backed postings sorted by product id, found by binary search. New products and
+     * rebuilds arrive in id order and append; re-indexing an updated product inserts in place.
+     */
+    private static final class PostingList {
+
+        private long[] ids = new long[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(long id, float weight) {
+            int slot = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (slot >= 0) {
+                weights[slot] = weight;
+                return;
+            }
+            slot = -slot - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, slot, ids, slot + 1, size - slot);
+            System.arraycopy(weights, slot, weights, slot + 1, size - slot);
+            ids[slot] = id;
+            weights[slot] = weight;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int slot = Arrays.binarySearch(ids, 0, size, id);
+            if (slot < 0) {
+                return false;
+            }
+            size--;
+            System.arraycopy(ids, slot + 1, ids, slot, size - slot);
+            System.arraycopy(weights, slot + 1, weights, slot, size - slot);
+            return true;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void accumulate(Map<Long, Float> scores, float boost) {
+            for (int i = 0; i < size; i++) {
+                scores.merge(ids[i], weights[i] * boost, Float::sum);
+            }
+        }
+    }
+}
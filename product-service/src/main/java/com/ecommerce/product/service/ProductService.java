@@ -1,64 +1,289 @@
 package com.ecommerce.product.service;
 
+import com.ecommerce.product.cache.ProductCache;
+import com.ecommerce.product.dto.ProductFacetCounts;
+import com.ecommerce.product.dto.ProductFilter;
+import com.ecommerce.product.dto.ProductFilterResponse;
+import com.ecommerce.product.dto.ProductLookupResponse;
+import com.ecommerce.product.dto.StockAdjustmentRequest;
+import com.ecommerce.product.dto.StockAdjustmentResponse;
+import com.ecommerce.product.event.ProductChangedEvent;
 import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.StockAdjustment;
+import com.ecommerce.product.repository.ProductBulkRepository;
 import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.StockAdjustmentRepository;
+import com.ecommerce.product.search.ProductFacets;
+import com.ecommerce.product.search.ProductSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+    private static final int MAX_TEXT_CANDIDATES = 1000;
+
     private final ProductRepository productRepository;
+    private final StockAdjustmentRepository stockAdjustmentRepository;
+    private final ProductCache productCache;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacets productFacets;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ProductBulkRepository productBulkRepository;
 
     public List<Product> getAllProducts() {
         log.info("Fetching all products");
-        return productRepository.findByActiveTrue();
+        return productCache.getList(ProductCache.ProductList.ACTIVE, productRepository::findByActiveTrue);
+    }
+
+    /**
+     * Keyset page of active products with ids strictly greater than {@code after},
+     * so the cost of a page does not grow with its position in the catalog.
+     */
+    public List<Product> getProductsPage(Long after, Integer limit) {
+        int pageSize = pageSize(limit);
+        log.info("Fetching products page after id: {}, limit: {}", after, pageSize);
+        return productRepository.findByActiveTrueAndIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(pageSize));
+    }
+
+    public static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Feeds every active product to {@code consumer} from a scrolling cursor, detaching
+     * each entity once consumed so the persistence context stays empty.
+     */
+    @Transactional(readOnly = true)
+    public void streamProducts(Consumer<Product> consumer) {
+        log.info("Streaming all products");
+        stream(productRepository.streamActive(), consumer);
+    }
+
+    /**
+     * Like {@link #streamProducts}, but includes inactive products so an export can be
+     * imported again without losing soft deletes.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<Product> consumer) {
+        log.info("Streaming all products including inactive");
+        stream(productRepository.streamAll(), consumer);
+    }
+
+    private void stream(Stream<Product> products, Consumer<Product> consumer) {
+        try (products) {
+            products.forEach(product -> {
+                consumer.accept(product);
+                entityManager.detach(product);
+            });
+        }
     }
 
     public Optional<Product> getProductById(Long id) {
         log.info("Fetching product with id: {}", id);
-        return productRepository.findById(id);
+        return productCache.getById(id, productRepository::findById);
+    }
+
+    /**
+     * Resolves up to several thousand ids with cache hits plus one IN query per chunk of
+     * misses, instead of a round-trip per id. Results follow the order of {@code ids}.
+     */
+    public ProductLookupResponse lookupProducts(List<Long> ids) {
+        log.info("Looking up {} products", ids.size());
+        LinkedHashSet<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        Map<Long, Product> found = productCache.getAllById(distinctIds, this::loadByIds);
+        List<Product> products = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductLookupResponse(products, missingIds);
+    }
+
+    private Map<Long, Product> loadByIds(Set<? extends Long> ids) {
+        List<Long> pending = new ArrayList<>(ids);
+        Map<Long, Product> loaded = new HashMap<>(pending.size());
+        for (int from = 0; from < pending.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = pending.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, pending.size()));
+            productRepository.findAllById(chunk).forEach(product -> loaded.put(product.getId(), product));
+        }
+        return loaded;
     }
 
     public List<Product> searchByName(String name) {
-        log.info("Searching products by name: {}", name);
-        return productRepository.findByNameContainingIgnoreCase(name);
+        return search(name, DEFAULT_SEARCH_LIMIT);
+    }
+
+    /**
+     * Ranked full-text search over name, category and description of active products.
+     */
+    public List<Product> search(String query, Integer limit) {
+        log.info("Searching products by text: {}", query);
+        List<Long> ids = searchIndex.search(query, limit == null ? DEFAULT_SEARCH_LIMIT : pageSize(limit));
+        Map<Long, Product> products = productCache.getAllById(ids, this::loadByIds);
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Products matching every criterion of {@code filter}, with facet counts. Without a text
+     * query the page comes from one indexed query and the counts from {@link ProductFacets}.
+     * With one, the best {@value #MAX_TEXT_CANDIDATES} text matches are filtered, sorted and
+     * counted in memory.
+     */
+    public ProductFilterResponse filter(ProductFilter filter) {
+        log.info("Filtering products: {}", filter);
+        int limit = pageSize(filter.getLimit());
+        if (!filter.hasText()) {
+            ProductFilter.Sort sort = filter.getSort() == null ? ProductFilter.Sort.ID : filter.getSort();
+            List<Product> products = productRepository.findBy(specification(filter),
+                    query -> query.sortBy(sortOf(sort)).limit(limit).all());
+            return new ProductFilterResponse(products, productFacets.count(filter));
+        }
+
+        List<Product> candidates = search(filter.getQ(), MAX_TEXT_CANDIDATES);
+        ProductFacetCounts facets = productFacets.count(filter, candidates);
+        Stream<Product> matching = candidates.stream().filter(filter::matches);
+        Comparator<Product> order = filter.getSort() == null ? null : filter.getSort().comparator();
+        if (order != null) {
+            matching = matching.sorted(order);
+        }
+        List<Product> products = matching.limit(limit).toList();
+        return new ProductFilterResponse(products, facets);
+    }
+
+    private static Specification<Product> specification(ProductFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            Set<String> categoryKeys = filter.categoryKeys();
+            if (!categoryKeys.isEmpty()) {
+                predicates.add(root.get("categoryKey").in(categoryKeys));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+            if (filter.getInStock() != null) {
+                predicates.add(filter.getInStock() ? cb.gt(root.get("stock"), 0) : cb.equal(root.get("stock"), 0));
+            }
+            if (filter.getActive() != null) {
+                predicates.add(cb.equal(root.get("active"), filter.getActive()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static Sort sortOf(ProductFilter.Sort sort) {
+        return switch (sort) {
+            case PRICE_ASC -> Sort.by("price", "id");
+            case PRICE_DESC -> Sort.by(Sort.Order.desc("price"), Sort.Order.asc("id"));
+            case NAME -> Sort.by("nameKey", "id");
+            case NEWEST -> Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("id"));
+            case RELEVANCE, ID -> Sort.by("id");
+        };
     }
 
     public List<Product> getByCategory(String category) {
         log.info("Fetching products by category: {}", category);
-        return productRepository.findByCategoryIgnoreCase(category);
+        return productCache.getByCategory(category, productRepository::findByCategoryIgnoreCase);
     }
 
     public List<Product> getInStockProducts() {
-        return productRepository.findAllInStock();
+        return productCache.getList(ProductCache.ProductList.IN_STOCK, productRepository::findAllInStock);
     }
 
     @Transactional
     public Product createProduct(Product product) {
         log.info("Creating product: {}", product.getName());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        publishChange(null, saved);
+        return saved;
+    }
+
+    /**
+     * Inserts or updates a batch of products matched by name ignoring case, with a few
+     * set-based statements instead of a round-trip per product. When the batch repeats a
+     * name, the last one wins.
+     *
+     * @return the number of products that were inserted rather than updated
+     */
+    @Transactional
+    public int upsertByName(List<Product> products) {
+        Map<String, Product> byKey = new LinkedHashMap<>();
+        for (Product product : products) {
+            byKey.put(nameKey(product.getName()), product);
+        }
+        Map<String, Product> previous = new HashMap<>();
+        for (Product existing : productBulkRepository.findByNameKeys(byKey.keySet())) {
+            previous.put(existing.getNameKey(), existing);
+        }
+        for (Product current : productBulkRepository.upsertByName(List.copyOf(byKey.values()), LocalDateTime.now())) {
+            publishChange(previous.get(current.getNameKey()), current);
+        }
+        return (int) byKey.keySet().stream().filter(key -> !previous.containsKey(key)).count();
+    }
+
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
     }
 
     @Transactional
     public Product updateProduct(Long id, Product updated) {
         log.info("Updating product with id: {}", id);
-        return productRepository.findById(id)
+        return findUncached(id)
                 .map(existing -> {
+                    Product previous = existing.toBuilder().build();
                     existing.setName(updated.getName());
                     existing.setDescription(updated.getDescription());
                     existing.setPrice(updated.getPrice());
                     existing.setStock(updated.getStock());
                     existing.setCategory(updated.getCategory());
                     existing.setActive(updated.getActive());
-                    return productRepository.save(existing);
+                    Product saved = productRepository.save(existing);
+                    publishChange(previous, saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
@@ -66,24 +291,82 @@ public class ProductService {
     @Transactional
     public void deleteProduct(Long id) {
         log.info("Deleting product with id: {}", id);
-        Product product = productRepository.findById(id)
+        Product product = findUncached(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        Product previous = product.toBuilder().build();
         product.setActive(false);
         productRepository.save(product); // soft delete
+        publishChange(previous, product);
     }
 
     @Transactional
     public Product updateStock(Long id, Integer quantity) {
         log.info("Updating stock for product id: {}, quantity: {}", id, quantity);
-        return productRepository.findById(id)
-                .map(product -> {
-                    int newStock = product.getStock() + quantity;
-                    if (newStock < 0) {
-                        throw new RuntimeException("Insufficient stock for product: " + id);
-                    }
-                    product.setStock(newStock);
-                    return productRepository.save(product);
-                })
+        if (productBulkRepository.adjustStock(id, quantity, LocalDateTime.now()) == 0) {
+            if (!productRepository.existsById(id)) {
+                throw new RuntimeException("Product not found with id: " + id);
+            }
+            throw new RuntimeException("Insufficient stock for product: " + id);
+        }
+        Product product = findUncached(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        publishChange(product.toBuilder().stock(product.getStock() - quantity).build(), product);
+        return product;
+    }
+
+    /**
+     * Applies a batch of stock adjustments at most once per dedup key, so a caller that
+     * redelivers after a timeout cannot double-count. Adjustments that would make stock
+     * negative or target a missing product are rejected individually and not recorded.
+     */
+    @Transactional
+    public StockAdjustmentResponse applyStockAdjustments(List<StockAdjustmentRequest.Item> adjustments) {
+        log.info("Applying {} stock adjustments", adjustments.size());
+        Set<String> seen = new HashSet<>();
+        stockAdjustmentRepository.findAllById(adjustments.stream().map(StockAdjustmentRequest.Item::getKey).toList())
+                .forEach(applied -> seen.add(applied.getDedupKey()));
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Integer> netChange = new HashMap<>();
+        List<StockAdjustmentResponse.Result> results = new ArrayList<>(adjustments.size());
+        for (StockAdjustmentRequest.Item item : adjustments) {
+            if (!seen.add(item.getKey())) {
+                results.add(new StockAdjustmentResponse.Result(item.getKey(), StockAdjustmentResponse.Status.DUPLICATE, null));
+                continue;
+            }
+            if (productBulkRepository.adjustStock(item.getProductId(), item.getQuantity(), now) == 0) {
+                String message = productRepository.existsById(item.getProductId())
+                        ? "Insufficient stock for product: " + item.getProductId()
+                        : "Product not found with id: " + item.getProductId();
+                results.add(new StockAdjustmentResponse.Result(item.getKey(), StockAdjustmentResponse.Status.REJECTED, message));
+                continue;
+            }
+            entityManager.persist(StockAdjustment.builder()
+                    .dedupKey(item.getKey())
+                    .productId(item.getProductId())
+                    .quantity(item.getQuantity())
+                    .appliedAt(now)
+                    .build());
+            netChange.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            results.add(new StockAdjustmentResponse.Result(item.getKey(), StockAdjustmentResponse.Status.APPLIED, null));
+        }
+
+        for (Product product : productRepository.findAllByIdUncached(netChange.keySet())) {
+            publishChange(product.toBuilder().stock(product.getStock() - netChange.get(product.getId())).build(), product);
+        }
+        return new StockAdjustmentResponse(results);
+    }
+
+    /**
+     * Reads a product to be written from the table rather than the second-level cache, so
+     * the change and its published snapshots start from committed state.
+     */
+    private Optional<Product> findUncached(Long id) {
+        return productRepository.findAllByIdUncached(List.of(id)).stream().findFirst();
+    }
+
+    private void publishChange(Product previous, Product current) {
+        // Listeners run after commit, so they only ever observe durable state
+        eventPublisher.publishEvent(new ProductChangedEvent(previous, current.toBuilder().build()));
     }
 }
@@ -0,0 +1,29 @@
+-- Schema of the persistent profile; must match the Product and StockAdjustment mappings,
+-- which Hibernate validates at startup.
+
+CREATE TABLE products (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(255)   NOT NULL,
+    -- Lower-cased copies kept by the database, for indexed case-insensitive lookups
+    name_key     VARCHAR(255) GENERATED ALWAYS AS (LOWER(name)),
+    description  VARCHAR(1000),
+    price        NUMERIC(38, 2) NOT NULL,
+    stock        INTEGER        NOT NULL,
+    category     VARCHAR(255)   NOT NULL,
+    category_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(category)),
+    active       BOOLEAN        NOT NULL,
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6)
+);
+
+CREATE INDEX idx_products_name_key ON products (name_key);
+CREATE INDEX idx_products_category_key_price ON products (category_key, price);
+CREATE INDEX idx_products_price ON products (price);
+
+-- Stock adjustments already applied, keyed by the sender's deduplication key
+CREATE TABLE stock_adjustments (
+    dedup_key  VARCHAR(100) PRIMARY KEY,
+    product_id BIGINT       NOT NULL,
+    quantity   INTEGER      NOT NULL,
+    applied_at TIMESTAMP(6) NOT NULL
+);
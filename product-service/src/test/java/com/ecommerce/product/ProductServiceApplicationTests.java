@@ -1,19 +1,41 @@
 package com.ecommerce.product;
 
+import com.ecommerce.product.cache.ProductCache;
 import com.ecommerce.product.model.Product;
 import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductFacets;
+import com.ecommerce.product.search.ProductSearchIndex;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -25,15 +47,36 @@ class ProductServiceApplicationTests {
     @Autowired
     private MockMvc mockMvc;
 
+    @LocalServerPort
+    private int port;
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacets productFacets;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @BeforeEach
     void setUp() {
         productRepository.deleteAll();
+        productCache.invalidateAll();
+        productSearchIndex.rebuild();
+        productFacets.rebuild();
     }
 
     @Test
@@ -71,10 +114,437 @@ class ProductServiceApplicationTests {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void shouldServeRepeatedReadsFromCache() throws Exception {
+        Product saved = productRepository.save(sampleProduct("Cached Product", "Books"));
+        double hitsBefore = cacheHits();
+
+        mockMvc.perform(get("/api/products/" + saved.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/" + saved.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Cached Product"));
+
+        assertEquals(hitsBefore + 1, cacheHits());
+    }
+
+    @Test
+    void shouldInvalidateCacheOnWrites() throws Exception {
+        Product saved = productRepository.save(sampleProduct("Stale Product", "Books"));
+        mockMvc.perform(get("/api/products/" + saved.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products").param("category", "books"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        Product update = sampleProduct("Fresh Product", "Books");
+        mockMvc.perform(put("/api/products/" + saved.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/products/" + saved.getId() + "/stock").param("quantity", "-3"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/products/" + saved.getId()))
+                .andExpect(jsonPath("$.name").value("Fresh Product"))
+                .andExpect(jsonPath("$.stock").value(7));
+        mockMvc.perform(get("/api/products").param("category", "Books"))
+                .andExpect(jsonPath("$[0].name").value("Fresh Product"));
+
+        mockMvc.perform(delete("/api/products/" + saved.getId())).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/products"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void shouldPageProductsByKeyset() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            productRepository.save(sampleProduct("Paged Product " + i, "Books"));
+        }
+
+        MvcResult first = mockMvc.perform(get("/api/products").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+
+        mockMvc.perform(get("/api/products")
+                        .param("after", first.getResponse().getHeader("X-Next-Cursor"))
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Paged Product 3"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void shouldStreamProductsAsNdjson() throws Exception {
+        productRepository.save(sampleProduct("Streamed A", "Books"));
+        productRepository.save(sampleProduct("Streamed B", "Books"));
+
+        MvcResult result = mockMvc.perform(get("/api/products/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.strip().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Streamed A", objectMapper.readValue(lines[0], Product.class).getName());
+    }
+
+    @Test
+    void shouldImportCatalogByNameInChunks() throws Exception {
+        productRepository.save(sampleProduct("Wireless Mouse", "Accessories"));
+        String csv = """
+                name,description,price,stock,category,active
+                wireless mouse,Updated mouse,24.99,5,Accessories,
+                Desk Lamp,,24.50,10,Home,true
+                Broken Price,,abc,1,Home,
+                No Price,,,1,Home,
+                Desk Lamp,Dimmable,25.00,11,Home,false
+                """;
+
+        mockMvc.perform(post("/api/products/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(5))
+                .andExpect(jsonPath("$.inserted").value(1))
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[0].row").value(3))
+                .andExpect(jsonPath("$.errors[1].row").value(4))
+                .andExpect(jsonPath("$.errors[1].message").value("Price is required"));
+
+        assertEquals(2, productRepository.count());
+        mockMvc.perform(get("/api/products").param("name", "mouse"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("wireless mouse"))
+                .andExpect(jsonPath("$[0].price").value(24.99));
+        mockMvc.perform(get("/api/products").param("name", "lamp"))
+                .andExpect(jsonPath("$.length()").value(0));
+
+        String ndjson = """
+                {"name":"Kettle","price":30,"stock":3,"category":"Home"}
+                {"name": broken
+                """;
+        mockMvc.perform(post("/api/products/import").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.inserted").value(1))
+                .andExpect(jsonPath("$.failure").exists());
+        assertEquals(3, productRepository.count());
+    }
+
+    @Test
+    void shouldExportCatalogThatImportsBackUnchanged() throws Exception {
+        productRepository.save(sampleProduct("Exported, Quoted \"Product\"", "Books"));
+        Product inactive = sampleProduct("Retired Product", "Books");
+        inactive.setActive(false);
+        productRepository.save(inactive);
+
+        for (String format : List.of("csv", "ndjson")) {
+            MvcResult export = mockMvc.perform(get("/api/products/export").param("format", format))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            MvcResult exported = mockMvc.perform(asyncDispatch(export))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            String contentType = exported.getResponse().getContentType();
+
+            mockMvc.perform(post("/api/products/import").contentType(contentType)
+                            .content(exported.getResponse().getContentAsByteArray()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.rows").value(2))
+                    .andExpect(jsonPath("$.updated").value(2));
+        }
+        assertEquals(2, productRepository.count());
+        assertEquals(1, productRepository.findByActiveTrue().size());
+    }
+
+    @Test
+    void shouldSearchByTokenPrefixAndTypo() throws Exception {
+        createViaApi(sampleProduct("Wireless Mouse", "Accessories"));
+        createViaApi(sampleProduct("Wired Keyboard", "Accessories"));
+        Product pad = sampleProduct("Desk Pad", "Accessories");
+        pad.setDescription("Large pad for any mouse");
+        createViaApi(pad);
+
+        mockMvc.perform(get("/api/products").param("name", "mouse"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Wireless Mouse"))
+                .andExpect(jsonPath("$[1].name").value("Desk Pad"));
+        mockMvc.perform(get("/api/products").param("name", "wire"))
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/api/products").param("name", "keyboar wired"))
+                .andExpect(jsonPath("$[0].name").value("Wired Keyboard"));
+        mockMvc.perform(get("/api/products").param("name", "mause").param("limit", "1"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Wireless Mouse"));
+    }
+
+    @Test
+    void shouldScoreEveryTermByTheTokensItMatched() throws Exception {
+        Product lamp = sampleProduct("Desk Lamp", "Lighting");
+        lamp.setDescription("Pause and read by it");
+        createViaApi(lamp);
+        createViaApi(sampleProduct("House Plant", "Garden"));
+
+        // "hause" is one edit from "pause" only by its first character, which typo matching keeps
+        mockMvc.perform(get("/api/products").param("name", "lamp hause"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/products").param("name", "plant hause"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("House Plant"));
+    }
+
+    @Test
+    void shouldKeepSearchInSyncWithUpdatesAndDeletes() throws Exception {
+        Product table = createViaApi(sampleProduct("Oak Table", "Furniture"));
+        Product chair = createViaApi(sampleProduct("Oak Chair", "Furniture"));
+        createViaApi(sampleProduct("Oak Shelf", "Furniture"));
+
+        table.setName("Oak Desk");
+        mockMvc.perform(put("/api/products/" + table.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(table)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/products/" + chair.getId())).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/products").param("name", "oak"))
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/api/products").param("name", "oak desk"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Oak Desk"));
+        mockMvc.perform(get("/api/products").param("name", "table"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void shouldDropDeletedProductsFromSearch() throws Exception {
+        Product created = createViaApi(sampleProduct("Vintage Lamp", "Furniture"));
+        mockMvc.perform(get("/api/products").param("name", "lamp"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        mockMvc.perform(delete("/api/products/" + created.getId())).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/products").param("name", "lamp"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void shouldFilterOnAllCriteriaWithFacetCounts() throws Exception {
+        createViaApi(product("Wireless Mouse", "Accessories", "19.99", 10));
+        createViaApi(product("Gaming Mouse", "Accessories", "59.99", 0));
+        createViaApi(product("Mouse Pad", "Accessories", "9.99", 5));
+        Product lamp = createViaApi(product("Desk Lamp", "Home", "35.00", 3));
+        createViaApi(product("Floor Lamp", "Home", "120.00", 1));
+        Product retired = product("Retired Mouse", "Accessories", "15.00", 2);
+        retired.setActive(false);
+        createViaApi(retired);
+
+        mockMvc.perform(get("/api/products/filter")
+                        .param("category", "accessories")
+                        .param("maxPrice", "60")
+                        .param("inStock", "true")
+                        .param("sort", "PRICE_DESC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(2))
+                .andExpect(jsonPath("$.products[0].name").value("Wireless Mouse"))
+                .andExpect(jsonPath("$.products[1].name").value("Mouse Pad"))
+                .andExpect(jsonPath("$.facets.categories.Accessories").value(2))
+                .andExpect(jsonPath("$.facets.categories.Home").value(1))
+                .andExpect(jsonPath("$.facets.prices[0].count").value(1))
+                .andExpect(jsonPath("$.facets.prices[1].count").value(1))
+                .andExpect(jsonPath("$.facets.prices[3].count").value(0));
+
+        mockMvc.perform(get("/api/products/filter").param("q", "mouse").param("inStock", "true"))
+                .andExpect(jsonPath("$.products.length()").value(2))
+                .andExpect(jsonPath("$.products[0].name").value("Wireless Mouse"))
+                .andExpect(jsonPath("$.facets.categories.length()").value(1))
+                .andExpect(jsonPath("$.facets.categories.Accessories").value(2));
+        // The search index holds active products only
+        mockMvc.perform(get("/api/products/filter").param("q", "mouse").param("active", "false"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/filter").param("active", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].name").value("Retired Mouse"));
+
+        lamp.setCategory("Accessories");
+        mockMvc.perform(put("/api/products/" + lamp.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lamp)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/filter").param("inStock", "true").param("limit", "2"))
+                .andExpect(jsonPath("$.products.length()").value(2))
+                .andExpect(jsonPath("$.facets.categories.Accessories").value(3))
+                .andExpect(jsonPath("$.facets.categories.Home").value(1));
+        mockMvc.perform(get("/api/products").param("category", "Accessories").param("inStock", "true"))
+                .andExpect(jsonPath("$.length()").value(3));
+    }
+
+    @Test
+    void shouldLookupProductsInRequestOrder() throws Exception {
+        Product first = productRepository.save(sampleProduct("First", "Books"));
+        Product second = productRepository.save(sampleProduct("Second", "Books"));
+        mockMvc.perform(get("/api/products/" + second.getId())).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/products/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + second.getId() + ",999999," + first.getId() + "," + second.getId() + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(2))
+                .andExpect(jsonPath("$.products[0].name").value("Second"))
+                .andExpect(jsonPath("$.products[1].name").value("First"))
+                .andExpect(jsonPath("$.missingIds[0]").value(999999));
+    }
+
+    @Test
+    void shouldRejectEmptyLookup() throws Exception {
+        mockMvc.perform(post("/api/products/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldApplyStockAdjustmentsOncePerKey() throws Exception {
+        Product product = productRepository.save(sampleProduct("Adjusted", "Books"));
+        mockMvc.perform(get("/api/products/" + product.getId())).andExpect(status().isOk());
+        String body = "{\"adjustments\":["
+                + "{\"key\":\"order-1-created\",\"productId\":" + product.getId() + ",\"quantity\":-3},"
+                + "{\"key\":\"order-2-created\",\"productId\":" + product.getId() + ",\"quantity\":-20},"
+                + "{\"key\":\"order-3-created\",\"productId\":999999,\"quantity\":-1}]}";
+
+        mockMvc.perform(post("/api/products/stock/adjustments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[1].message").value("Insufficient stock for product: " + product.getId()))
+                .andExpect(jsonPath("$.results[2].message").value("Product not found with id: 999999"));
+
+        // A redelivered batch must not apply the same key twice
+        mockMvc.perform(post("/api/products/stock/adjustments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(jsonPath("$.results[0].status").value("DUPLICATE"));
+
+        mockMvc.perform(get("/api/products/" + product.getId()))
+                .andExpect(jsonPath("$.stock").value(7));
+    }
+
+    @Test
+    void shouldEvictSecondLevelCacheOnJdbcStockAdjustments() throws Exception {
+        Product product = productRepository.save(sampleProduct("Second Level", "Books"));
+        Cache cache = entityManagerFactory.getCache();
+        assertEquals(10, productRepository.findById(product.getId()).orElseThrow().getStock());
+        assertTrue(cache.contains(Product.class, product.getId()));
+
+        mockMvc.perform(post("/api/products/stock/adjustments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"adjustments\":[{\"key\":\"order-9-created\",\"productId\":"
+                                + product.getId() + ",\"quantity\":-4}]}"))
+                .andExpect(jsonPath("$.results[0].status").value("APPLIED"));
+
+        assertFalse(cache.contains(Product.class, product.getId()));
+        assertEquals(6, productRepository.findById(product.getId()).orElseThrow().getStock());
+        assertTrue(cache.contains(Product.class, product.getId()));
+    }
+
+    @Test
+    void shouldRecordStatementsPerRequest() throws Exception {
+        Product product = productRepository.save(sampleProduct("Metered Lamp", "Home"));
+        double requestsBefore = statementsPerLookup().count();
+        double statementsBefore = statementsPerLookup().totalAmount();
+
+        mockMvc.perform(get("/api/products/" + product.getId())).andExpect(status().isOk());
+
+        assertEquals(1, statementsPerLookup().count() - requestsBefore);
+        assertEquals(1, statementsPerLookup().totalAmount() - statementsBefore, "a cache miss should run one select");
+        assertTrue(meterRegistry.get("db.queries").tag("operation", "select").timer().count() > 0);
+    }
+
+    @Test
+    void shouldNegotiateBinaryFormatsAndCompressLists() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            productRepository.save(sampleProduct("Encoded Product " + i, "Books"));
+        }
+        ObjectMapper smile = new ObjectMapper(new SmileFactory()).findAndRegisterModules();
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory()).findAndRegisterModules();
+
+        byte[] smileBody = mockMvc.perform(get("/api/products").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] cborBody = mockMvc.perform(get("/api/products").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] jsonBody = mockMvc.perform(get("/api/products"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<Product> fromJson = objectMapper.readValue(jsonBody, new TypeReference<>() {
+        });
+        assertEquals(fromJson, smile.readValue(smileBody, new TypeReference<List<Product>>() {
+        }));
+        assertEquals(fromJson, cbor.readValue(cborBody, new TypeReference<List<Product>>() {
+        }));
+        assertTrue(smileBody.length < jsonBody.length && cborBody.length < jsonBody.length);
+
+        HttpResponse<InputStream> gzipped = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products"))
+                        .header("Accept-Encoding", "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElse(null));
+        try (InputStream body = new GZIPInputStream(gzipped.body())) {
+            assertEquals(50, objectMapper.readValue(body, List.class).size());
+        }
+    }
+
     @Test
     void shouldReturnHealthStatus() throws Exception {
         mockMvc.perform(get("/api/products/health"))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Product Service is UP"));
     }
+
+    private Product sampleProduct(String name, String category) {
+        return Product.builder()
+                .name(name)
+                .description("Test Description")
+                .price(new BigDecimal("19.99"))
+                .stock(10)
+                .category(category)
+                .build();
+    }
+
+    private Product product(String name, String category, String price, int stock) {
+        Product product = sampleProduct(name, category);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(stock);
+        return product;
+    }
+
+    private Product createViaApi(Product product) throws Exception {
+        String body = mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(product)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, Product.class);
+    }
+
+    private DistributionSummary statementsPerLookup() {
+        return DistributionSummary.builder("http.server.requests.queries")
+                .tags("method", "GET", "uri", "/api/products/{id}")
+                .register(meterRegistry);
+    }
+
+    private double cacheHits() {
+        return meterRegistry.get("cache.gets")
+                .tags("cache", "products.byId", "result", "hit")
+                .functionCounter()
+                .count();
+    }
 }
@@ -0,0 +1,135 @@
+package com.ecommerce.product;
+
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationConcurrencyTests {
+
+    private static final int THREADS = 200;
+    private static final int ATTEMPTS_PER_THREAD = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void shouldNeverOversellUnderContention() throws Exception {
+        int initialStock = 3000;
+        Long id = productRepository.save(product(initialStock)).getId();
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                try {
+                    productService.updateStock(id, -1);
+                    reserved.incrementAndGet();
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(initialStock, reserved.get());
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - initialStock, rejected.get());
+        assertEquals(0, productRepository.findById(id).orElseThrow().getStock());
+    }
+
+    @Test
+    void shouldApplyMixedAdjustmentsExactly() throws Exception {
+        int initialStock = 500;
+        Long id = productRepository.save(product(initialStock)).getId();
+
+        // Every thread reserves and then releases the same amount, so the net delta is zero
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD / 2; i++) {
+                productService.updateStock(id, -2);
+                productService.updateStock(id, 2);
+            }
+        });
+
+        assertEquals(initialStock, productRepository.findById(id).orElseThrow().getStock());
+    }
+
+    @Test
+    void shouldReportThroughputPerThreadCount() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= Math.max(4, cores * 2); threads *= 2) {
+            int operations = 2000;
+            Long id = productRepository.save(product(operations)).getId();
+            int perThread = operations / threads;
+
+            long start = System.nanoTime();
+            runConcurrently(threads, () -> {
+                for (int i = 0; i < perThread; i++) {
+                    productService.updateStock(id, -1);
+                }
+            });
+            long elapsed = System.nanoTime() - start;
+
+            int applied = perThread * threads;
+            assertEquals(operations - applied, productRepository.findById(id).orElseThrow().getStock());
+            log.info("updateStock on one hot product: threads={}, ops={}, throughput={} ops/s",
+                    threads, applied, Math.round(applied / (elapsed / 1_000_000_000.0)));
+        }
+    }
+
+    private void runConcurrently(int threads, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    private Product product(int stock) {
+        return Product.builder()
+                .name("Hot SKU")
+                .description("Flash sale item")
+                .price(new BigDecimal("9.99"))
+                .stock(stock)
+                .category("Electronics")
+                .build();
+    }
+}